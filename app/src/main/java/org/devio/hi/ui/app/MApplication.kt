@@ -7,10 +7,12 @@ import org.devio.hi.library.log.HiFilePrinter
 import org.devio.hi.library.log.HiLogConfig
 import org.devio.hi.library.log.HiLogConfig.JsonParser
 import org.devio.hi.library.log.HiLogManager
+import org.devio.hi.ui.icfont.HiTypefaceCache
 
 class MApplication : Application() {
     override fun onCreate() {
         super.onCreate()
+        HiTypefaceCache.preload(this, HiTypefaceCache.ICON_FONT)
         HiLogManager.init(
             object : HiLogConfig() {
                 override fun injectJsonParser(): JsonParser? {
@@ -60,6 +60,11 @@ class HiBannerDemoActivity : AppCompatActivity() {
         mHiBanner!!.setHiIndicator(hiIndicator)
         mHiBanner.setAutoPlay(autoPlay)
         mHiBanner.setIntervalTime(2000)
+        //提前在子线程下载并解码即将展示的图片
+        mHiBanner.setPrefetchLoader { mo, width, height ->
+            val request = Glide.with(this@HiBannerDemoActivity).load(mo.url)
+            if (width > 0 && height > 0) request.preload(width, height) else request.preload()
+        }
         //自定义布局
         mHiBanner.setBannerData(R.layout.banner_item_layout, moList)
         mHiBanner.setBindAdapter { viewHolder, mo, position ->
@@ -1,7 +1,6 @@
 package org.devio.hi.ui.app.demo.refresh
 
 import android.os.Bundle
-import android.os.Handler
 import android.view.LayoutInflater
 import android.view.View
 import android.view.ViewGroup
@@ -10,10 +9,11 @@ import androidx.appcompat.app.AppCompatActivity
 import androidx.recyclerview.widget.LinearLayoutManager
 import androidx.recyclerview.widget.RecyclerView
 import androidx.recyclerview.widget.RecyclerView.ViewHolder
+import kotlinx.coroutines.delay
 import org.devio.hi.library.log.HiLog
 import org.devio.hi.ui.app.R
-import org.devio.hi.ui.refresh.HiRefresh
 import org.devio.hi.ui.refresh.HiTextOverView
+import org.devio.hi.ui.refresh.HiRefreshLauncher
 import org.devio.hi.ui.refresh.HiRefreshLayout
 
 class HiRefreshDemoActivity : AppCompatActivity() {
@@ -26,16 +26,9 @@ class HiRefreshDemoActivity : AppCompatActivity() {
         val lottieOverView =
             HiLottieOverView(this)
         refreshLayout.setRefreshOverView(lottieOverView)
-        refreshLayout.setRefreshListener(object :
-            HiRefresh.HiRefreshListener {
-            override fun onRefresh() {
-                Handler().postDelayed({ refreshLayout.refreshFinished() }, 1000)
-            }
-
-            override fun enableRefresh(): Boolean {
-                return true
-            }
-        })
+        HiRefreshLauncher.launch(refreshLayout, this) {
+            delay(1000)
+        }
         refreshLayout.setDisableRefreshScroll(false)
         initRecycleView()
     }
@@ -14,7 +14,9 @@ import org.devio.hi.ui.R;
 import org.devio.hi.ui.banner.core.IBindAdapter;
 import org.devio.hi.ui.banner.core.HiBannerDelegate;
 import org.devio.hi.ui.banner.core.HiBannerMo;
+import org.devio.hi.ui.banner.core.HiBannerPrefetcher;
 import org.devio.hi.ui.banner.core.IHiBanner;
+import org.devio.hi.ui.banner.core.IPrefetchLoader;
 import org.devio.hi.ui.banner.indicator.HiIndicator;
 
 import java.util.List;
@@ -105,6 +107,26 @@ public class HiBanner extends FrameLayout implements IHiBanner {
         delegate.setScrollDuration(duration);
     }
 
+    @Override
+    public void setReflectionFree(boolean reflectionFree) {
+        delegate.setReflectionFree(reflectionFree);
+    }
+
+    @Override
+    public void setPrefetchLoader(IPrefetchLoader prefetchLoader) {
+        delegate.setPrefetchLoader(prefetchLoader);
+    }
+
+    @Override
+    public void setPrefetchCount(int prefetchCount) {
+        delegate.setPrefetchCount(prefetchCount);
+    }
+
+    @Override
+    public HiBannerPrefetcher getPrefetcher() {
+        return delegate.getPrefetcher();
+    }
+
     @Override
     public void setOnBannerClickListener(OnBannerClickListener onBannerClickListener) {
         delegate.setOnBannerClickListener(onBannerClickListener);
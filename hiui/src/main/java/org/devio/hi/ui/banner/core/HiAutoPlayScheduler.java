@@ -0,0 +1,145 @@
+package org.devio.hi.ui.banner.core;
+
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 全局共享的Banner自动轮播调度器
+ * 1. 所有Banner的翻页时机合并到同一个Choreographer帧回调上，与屏幕刷新对齐
+ * 2. 只在最近一个翻页时间点到来时才唤醒主线程，没有正在轮播的Banner时不再post任何回调
+ */
+@MainThread
+final class HiAutoPlayScheduler implements Choreographer.FrameCallback {
+
+    /**
+     * 翻页时间点与当前帧相差在该范围内时，视为已经到期，避免为了几毫秒再等一帧
+     */
+    private static final long FRAME_TOLERANCE_MS = 8;
+
+    private static HiAutoPlayScheduler sInstance;
+
+    private final Choreographer mChoreographer = Choreographer.getInstance();
+    private final List<Entry> mEntries = new ArrayList<>();
+    //doFrame时复用的快照，避免onTick中调用schedule/cancel导致并发修改
+    private final List<Entry> mTicking = new ArrayList<>();
+    private boolean mFrameScheduled;
+    private long mScheduledDeadline;
+
+    interface Target {
+        /**
+         * @return 页面停留时间，单位毫秒
+         */
+        int getIntervalTime();
+
+        /**
+         * 翻页时间到达时回调
+         */
+        void onAutoPlayTick();
+    }
+
+    private static class Entry {
+        Target target;
+        long deadline;
+
+        Entry(Target target) {
+            this.target = target;
+        }
+    }
+
+    static HiAutoPlayScheduler getInstance() {
+        if (sInstance == null) {
+            sInstance = new HiAutoPlayScheduler();
+        }
+        return sInstance;
+    }
+
+    private HiAutoPlayScheduler() {
+    }
+
+    /**
+     * 开始（或重新开始）计时，下一次翻页将在一个完整的停留时间之后
+     */
+    void schedule(@NonNull Target target) {
+        Entry entry = findEntry(target);
+        if (entry == null) {
+            entry = new Entry(target);
+            mEntries.add(entry);
+        }
+        entry.deadline = SystemClock.uptimeMillis() + Math.max(0, target.getIntervalTime());
+        scheduleFrame();
+    }
+
+    /**
+     * 停止计时，如果已经没有需要轮播的Banner，同时移除帧回调
+     */
+    void cancel(@NonNull Target target) {
+        Entry entry = findEntry(target);
+        if (entry == null) {
+            return;
+        }
+        mEntries.remove(entry);
+        if (mEntries.isEmpty() && mFrameScheduled) {
+            mChoreographer.removeFrameCallback(this);
+            mFrameScheduled = false;
+        }
+    }
+
+    boolean isScheduled(@NonNull Target target) {
+        return findEntry(target) != null;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mFrameScheduled = false;
+        long now = SystemClock.uptimeMillis();
+        mTicking.clear();
+        for (int i = 0; i < mEntries.size(); i++) {
+            Entry entry = mEntries.get(i);
+            if (entry.deadline - FRAME_TOLERANCE_MS <= now) {
+                entry.deadline = now + Math.max(0, entry.target.getIntervalTime());
+                mTicking.add(entry);
+            }
+        }
+        for (int i = 0; i < mTicking.size(); i++) {
+            mTicking.get(i).target.onAutoPlayTick();
+        }
+        mTicking.clear();
+        scheduleFrame();
+    }
+
+    private void scheduleFrame() {
+        if (mEntries.isEmpty()) {
+            return;
+        }
+        long deadline = Long.MAX_VALUE;
+        for (int i = 0; i < mEntries.size(); i++) {
+            deadline = Math.min(deadline, mEntries.get(i).deadline);
+        }
+        if (mFrameScheduled) {
+            if (mScheduledDeadline <= deadline) {
+                return;
+            }
+            //有更早的翻页时间点，重新post
+            mChoreographer.removeFrameCallback(this);
+        }
+        mScheduledDeadline = deadline;
+        mFrameScheduled = true;
+        mChoreographer.postFrameCallbackDelayed(this, Math.max(0, deadline - SystemClock.uptimeMillis()));
+    }
+
+    private Entry findEntry(Target target) {
+        for (int i = 0; i < mEntries.size(); i++) {
+            Entry entry = mEntries.get(i);
+            if (entry.target == target) {
+                return entry;
+            }
+        }
+        return null;
+    }
+}
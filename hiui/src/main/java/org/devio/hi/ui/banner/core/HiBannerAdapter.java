@@ -10,19 +10,43 @@ import androidx.annotation.LayoutRes;
 import androidx.annotation.NonNull;
 import androidx.viewpager.widget.PagerAdapter;
 
+import org.devio.hi.ui.R;
 import org.devio.hi.ui.banner.HiBanner;
 
+import java.util.ArrayDeque;
 import java.util.List;
 
 /**
  * HiViewPager的适配器，为页面填充数据
  */
 public class HiBannerAdapter extends PagerAdapter {
+    /**
+     * 每种布局最多缓存的回收页面数，ViewPager默认只保留当前页左右各一页，回收池无需更大
+     */
+    private static final int DEFAULT_MAX_RECYCLED_VIEWS = 3;
+
     private Context mContext;
-    //稀疏数组
-    private SparseArray<HiBannerViewHolder> mCachedViews = new SparseArray<>();
+    //回收池，按布局类型（layoutResId）存放已被ViewPager销毁、可复用的ViewHolder
+    private SparseArray<ArrayDeque<HiBannerViewHolder>> mRecycledViews = new SparseArray<>();
+    private int mMaxRecycledViews = DEFAULT_MAX_RECYCLED_VIEWS;
+    //ViewPager当前持有的页面，key为ViewPager中的position，用于增量更新时定位需要重新绑定的页面
+    private SparseArray<HiBannerViewHolder> mActiveViews = new SparseArray<>();
     private HiBanner.OnBannerClickListener mBannerClickListener;
     private IBindAdapter mBindAdapter;
+    private HiBannerPrefetcher mPrefetcher;
+
+    /**
+     * 所有页面共用同一个点击监听，点击时从ViewHolder中读取当前绑定的数据和位置，避免每次绑定都创建新的监听对象
+     */
+    private final View.OnClickListener mItemClickListener = new View.OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            HiBannerViewHolder viewHolder = (HiBannerViewHolder) v.getTag(R.id.id_banner_view_holder);
+            if (mBannerClickListener != null && viewHolder != null && viewHolder.bannerMo != null) {
+                mBannerClickListener.onBannerClick(viewHolder, viewHolder.bannerMo, viewHolder.realPosition);
+            }
+        }
+    };
     private List<? extends HiBannerMo> models;
     
     //是否开启自动轮播
@@ -41,26 +65,65 @@ public class HiBannerAdapter extends PagerAdapter {
      */
     public void setBannerData(@NonNull List<? extends HiBannerMo> models) {
         this.models = models;
-        initCachedView();
+        //页面不再预先全部inflate，而是在instantiateItem时按需从回收池获取或创建
         notifyDataSetChanged();
     }
 
     /**
-     * 初始化Banner数据
+     * 增量更新Banner数据：只重新绑定内容发生变化的在屏页面，未变化的页面保持不动
+     *
+     * @return 数据数量是否发生了变化，数量变化时会通知ViewPager刷新
      */
-    private void initCachedView() {
-        mCachedViews = new SparseArray<>();
-        //遍历所有的model，并将model的索引放到viewHolder中
-        for (int i = 0; i < models.size(); i++) {
-            HiBannerViewHolder viewHolder = new HiBannerViewHolder(createView(LayoutInflater.from(mContext), null));
-            mCachedViews.put(i, viewHolder);
+    public boolean updateBannerData(@NonNull List<? extends HiBannerMo> newModels) {
+        int oldCount = getRealCount();
+        this.models = newModels;
+        if (oldCount != newModels.size()) {
+            notifyDataSetChanged();
+            return true;
+        }
+        for (int i = 0; i < mActiveViews.size(); i++) {
+            HiBannerViewHolder viewHolder = mActiveViews.valueAt(i);
+            HiBannerMo newMo = newModels.get(viewHolder.realPosition);
+            if (viewHolder.bannerMo == null || !viewHolder.bannerMo.areContentsTheSame(newMo)) {
+                bindViewHolder(viewHolder, mActiveViews.keyAt(i), true);
+            } else {
+                //内容相同不需要重新绑定，但要持有新的数据对象，保证点击回调拿到的是最新的数据
+                viewHolder.bannerMo = newMo;
+            }
         }
+        return false;
+    }
+
+    /**
+     * 设置每种布局在回收池中最多缓存的页面数
+     *
+     * @param maxRecycledViews 建议与ViewPager的offscreenPageLimit * 2 + 1保持一致
+     */
+    public void setMaxRecycledViews(int maxRecycledViews) {
+        this.mMaxRecycledViews = Math.max(0, maxRecycledViews);
+        for (int i = 0; i < mRecycledViews.size(); i++) {
+            ArrayDeque<HiBannerViewHolder> pool = mRecycledViews.valueAt(i);
+            while (pool.size() > mMaxRecycledViews) {
+                pool.poll();
+            }
+        }
+    }
+
+    /**
+     * 清空回收池，释放缓存的页面
+     */
+    public void clearRecycledViews() {
+        mRecycledViews.clear();
     }
 
     public void setBindAdapter(IBindAdapter bindAdapter) {
         this.mBindAdapter = bindAdapter;
     }
 
+    public void setPrefetcher(HiBannerPrefetcher prefetcher) {
+        this.mPrefetcher = prefetcher;
+    }
+
     public void setOnBannerClickListener(HiBanner.OnBannerClickListener OnBannerClickListener) {
         this.mBannerClickListener = OnBannerClickListener;
     }
@@ -69,6 +132,11 @@ public class HiBannerAdapter extends PagerAdapter {
         this.mLayoutResId = layoutResId;
     }
 
+    @LayoutRes
+    public int getLayoutResId() {
+        return mLayoutResId;
+    }
+
     public void setAutoPlay(boolean autoPlay) {
         this.mAutoPlay = autoPlay;
     }
@@ -109,40 +177,84 @@ public class HiBannerAdapter extends PagerAdapter {
 
     @Override
     public boolean isViewFromObject(@NonNull View view, @NonNull Object object) {
-        return view == object;
+        return object instanceof HiBannerViewHolder && ((HiBannerViewHolder) object).rootView == view;
     }
 
     /**
-     * 对Item进行实例化
+     * 对Item进行实例化，优先复用回收池中同类型的ViewHolder，没有时才inflate新的页面
      */
     @NonNull
     @Override
     public Object instantiateItem(@NonNull ViewGroup container, int position) {
-        int realPosition = position;
-        if (getRealCount() > 0) {
-            realPosition = position % getRealCount();
-        }
-        HiBannerViewHolder viewHolder = mCachedViews.get(realPosition);
-        //如果ViewHolder的rootView已经被添加进去了，就需要通过container将它给移除掉
-        if (container.equals(viewHolder.rootView.getParent())) {
-            container.removeView(viewHolder.rootView);
-        }
+        HiBannerViewHolder viewHolder = obtainViewHolder(container);
+
+        //进行数据绑定，复用的ViewHolder同样通过onBind重新绑定数据
+        bindViewHolder(viewHolder, position, false);
+        mActiveViews.put(position, viewHolder);
 
-        //进行数据绑定
-        onBind(viewHolder, models.get(realPosition), realPosition);
-        
         //异常处理，如果rootView的parent不为空，将它给移除并重新添加，防止重复添加
         if (viewHolder.rootView.getParent() != null) {
             ((ViewGroup) viewHolder.rootView.getParent()).removeView(viewHolder.rootView);
         }
         container.addView(viewHolder.rootView);
-        return viewHolder.rootView;
+        return viewHolder;
     }
 
+    /**
+     * 页面被ViewPager销毁时，将其从container中移除，并放入回收池等待复用
+     */
     @Override
     public void destroyItem(@NonNull ViewGroup container, int position, @NonNull Object object) {
+        HiBannerViewHolder viewHolder = (HiBannerViewHolder) object;
+        container.removeView(viewHolder.rootView);
+        if (mActiveViews.get(position) == viewHolder) {
+            mActiveViews.remove(position);
+        }
+        viewHolder.bannerMo = null;
+        ArrayDeque<HiBannerViewHolder> pool = mRecycledViews.get(viewHolder.itemViewType);
+        if (pool == null) {
+            pool = new ArrayDeque<>(mMaxRecycledViews);
+            mRecycledViews.put(viewHolder.itemViewType, pool);
+        }
+        //回收池已满时直接丢弃，保证内存占用不随Banner数量增长
+        if (pool.size() < mMaxRecycledViews) {
+            pool.offer(viewHolder);
+        }
     }
 
+    /**
+     * @param rebind 是否为数据更新时重新绑定已在屏的页面，不计入预加载的命中统计
+     */
+    private void bindViewHolder(HiBannerViewHolder viewHolder, int position, boolean rebind) {
+        int realPosition = position;
+        if (getRealCount() > 0) {
+            realPosition = position % getRealCount();
+        }
+        HiBannerMo bannerMo = models.get(realPosition);
+        viewHolder.position = position;
+        viewHolder.realPosition = realPosition;
+        viewHolder.bannerMo = bannerMo;
+        if (mPrefetcher != null) {
+            if (rebind) {
+                mPrefetcher.onRebind(bannerMo);
+            } else {
+                mPrefetcher.onBind(bannerMo);
+            }
+        }
+        onBind(viewHolder, bannerMo, realPosition);
+    }
+
+    private HiBannerViewHolder obtainViewHolder(ViewGroup container) {
+        ArrayDeque<HiBannerViewHolder> pool = mRecycledViews.get(mLayoutResId);
+        HiBannerViewHolder viewHolder = pool == null ? null : pool.poll();
+        if (viewHolder == null) {
+            viewHolder = new HiBannerViewHolder(createView(LayoutInflater.from(mContext), container));
+            viewHolder.itemViewType = mLayoutResId;
+            viewHolder.rootView.setTag(R.id.id_banner_view_holder, viewHolder);
+            viewHolder.rootView.setOnClickListener(mItemClickListener);
+        }
+        return viewHolder;
+    }
 
     private View createView(LayoutInflater layoutInflater, ViewGroup parent) {
         if (mLayoutResId == -1) {
@@ -152,29 +264,41 @@ public class HiBannerAdapter extends PagerAdapter {
         return layoutInflater.inflate(mLayoutResId, parent, false);
     }
 
-    protected void onBind(@NonNull final HiBannerViewHolder viewHolder, @NonNull final HiBannerMo bannerMo, final int position) {
-        viewHolder.rootView.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                if (mBannerClickListener != null) {
-                    mBannerClickListener.onBannerClick(viewHolder, bannerMo, position);
-                }
-            }
-        });
+    protected void onBind(@NonNull HiBannerViewHolder viewHolder, @NonNull HiBannerMo bannerMo, int position) {
         if (mBindAdapter != null) {
             mBindAdapter.onBind(viewHolder, bannerMo, position);
         }
     }
 
+    /**
+     * 页面在ViewPager中的位置对应的数据没有变化时返回POSITION_UNCHANGED，
+     * 这样notifyDataSetChanged只会重建真正变化的页面
+     */
     @Override
     public int getItemPosition(@NonNull Object object) {
-        //让item每次都会刷新
-        return POSITION_NONE;
+        HiBannerViewHolder viewHolder = (HiBannerViewHolder) object;
+        int realCount = getRealCount();
+        if (viewHolder.bannerMo == null || realCount == 0 || viewHolder.position >= getCount()
+                || viewHolder.position % realCount != viewHolder.realPosition) {
+            return POSITION_NONE;
+        }
+        HiBannerMo bannerMo = models.get(viewHolder.realPosition);
+        if (bannerMo != viewHolder.bannerMo && !bannerMo.areContentsTheSame(viewHolder.bannerMo)) {
+            return POSITION_NONE;
+        }
+        viewHolder.bannerMo = bannerMo;
+        return POSITION_UNCHANGED;
     }
 
     public static class HiBannerViewHolder {
         private SparseArray<View> viewHolderSparseArr;
         View rootView;
+        //布局类型，即创建该页面时使用的layoutResId，用作回收池的key
+        int itemViewType;
+        //当前绑定的数据、在ViewPager中的位置及其在数据集中的位置，用于增量更新时比对和点击回调
+        int position;
+        int realPosition;
+        HiBannerMo bannerMo;
 
         HiBannerViewHolder(View rootView) {
             this.rootView = rootView;
@@ -1,6 +1,7 @@
 package org.devio.hi.ui.banner.core;
 
 import android.content.Context;
+import android.view.View;
 import android.widget.FrameLayout;
 
 import androidx.annotation.LayoutRes;
@@ -32,6 +33,24 @@ public class HiBannerDelegate implements ViewPager.OnPageChangeListener, IHiBann
     private HiBanner.OnBannerClickListener mOnBannerClickListener;
     private HiViewPager mHiViewPager;
     private int mScrollDuration = -1;
+    private boolean mReflectionFree;
+    private final HiBannerPrefetcher mPrefetcher = new HiBannerPrefetcher();
+    //indicator、loop等会影响页面结构的配置变化后，下一次setBannerData需要完整重建
+    private boolean mNeedRebuild = true;
+    //Banner还没有完成布局、尺寸为0时的预加载请求，等第一次布局完成后再以正确的尺寸发起
+    private boolean mPrefetchPending;
+    private int mPendingPrefetchPosition;
+    private final View.OnLayoutChangeListener mLayoutChangeListener = new View.OnLayoutChangeListener() {
+        @Override
+        public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                   int oldLeft, int oldTop, int oldRight, int oldBottom) {
+            if (mPrefetchPending && right > left && bottom > top) {
+                mPrefetchPending = false;
+                mBanner.removeOnLayoutChangeListener(this);
+                prefetchAhead(mPendingPrefetchPosition);
+            }
+        }
+    };
 
     public HiBannerDelegate(Context context, @NonNull HiBanner banner) {
         mContext = context;
@@ -43,6 +62,10 @@ public class HiBannerDelegate implements ViewPager.OnPageChangeListener, IHiBann
      */
     @Override
     public void setBannerData(@LayoutRes int layoutResId, @NonNull List<? extends HiBannerMo> models) {
+        if (canUpdateIncrementally(layoutResId, models)) {
+            update(models);
+            return;
+        }
         mHiBannerMos = models;
         init(layoutResId);
     }
@@ -71,11 +94,13 @@ public class HiBannerDelegate implements ViewPager.OnPageChangeListener, IHiBann
 
     @Override
     public void setHiIndicator(HiIndicator hiIndicator) {
+        if (mHiIndicator != hiIndicator) mNeedRebuild = true;
         this.mHiIndicator = hiIndicator;
     }
 
     @Override
     public void setAutoPlay(boolean autoPlay) {
+        if (mAutoPlay != autoPlay) mNeedRebuild = true;
         this.mAutoPlay = autoPlay;
         //让AutoPlay即时生效
         if (mAdapter != null) mAdapter.setAutoPlay(autoPlay);
@@ -84,6 +109,7 @@ public class HiBannerDelegate implements ViewPager.OnPageChangeListener, IHiBann
 
     @Override
     public void setLoop(boolean loop) {
+        if (mLoop != loop) mNeedRebuild = true;
         this.mLoop = loop;
     }
 
@@ -105,6 +131,27 @@ public class HiBannerDelegate implements ViewPager.OnPageChangeListener, IHiBann
         if (mHiViewPager != null && duration > 0) mHiViewPager.setScrollDuration(duration);
     }
 
+    @Override
+    public void setReflectionFree(boolean reflectionFree) {
+        this.mReflectionFree = reflectionFree;
+        if (mHiViewPager != null) mHiViewPager.setReflectionFree(reflectionFree);
+    }
+
+    @Override
+    public void setPrefetchLoader(IPrefetchLoader prefetchLoader) {
+        mPrefetcher.setLoader(prefetchLoader);
+    }
+
+    @Override
+    public void setPrefetchCount(int prefetchCount) {
+        mPrefetcher.setPrefetchCount(prefetchCount);
+    }
+
+    @Override
+    public HiBannerPrefetcher getPrefetcher() {
+        return mPrefetcher;
+    }
+
     /**
      * 对HiBannerDelegate进行初始化
      * 备注：在初始化HiBannerDelegate之前，创建HiBanner类时，就已经通过解析xml文件，对Banner的属性进行配置了
@@ -119,6 +166,8 @@ public class HiBannerDelegate implements ViewPager.OnPageChangeListener, IHiBann
         }
         mHiIndicator.onInflate(mHiBannerMos.size());
         mAdapter.setLayoutResId(layoutResId);
+        mAdapter.setPrefetcher(mPrefetcher);
+        mPrefetcher.clear();
         mAdapter.setBannerData(mHiBannerMos);
         mAdapter.setAutoPlay(mAutoPlay);
         mAdapter.setLoop(mLoop);
@@ -128,6 +177,7 @@ public class HiBannerDelegate implements ViewPager.OnPageChangeListener, IHiBann
         mHiViewPager.setIntervalTime(mIntervalTime);
         mHiViewPager.addOnPageChangeListener(this);
         mHiViewPager.setAutoPlay(mAutoPlay);
+        mHiViewPager.setReflectionFree(mReflectionFree);
         if (mScrollDuration > 0) mHiViewPager.setScrollDuration(mScrollDuration);
         FrameLayout.LayoutParams layoutParams =
                 new FrameLayout.LayoutParams(FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT);
@@ -144,14 +194,74 @@ public class HiBannerDelegate implements ViewPager.OnPageChangeListener, IHiBann
         mBanner.removeAllViews();
         mBanner.addView(mHiViewPager, layoutParams);
         mBanner.addView(mHiIndicator.get(), layoutParams);
+        mNeedRebuild = false;
+        //此时Banner可能还没有布局，prefetchAhead会等到第一次布局完成后再发起
+        prefetchAhead(0);
+    }
+
+    /**
+     * 已经初始化过、布局和页面结构相关的配置都没有变化时，可以走增量更新
+     */
+    private boolean canUpdateIncrementally(@LayoutRes int layoutResId, @NonNull List<? extends HiBannerMo> models) {
+        return !mNeedRebuild
+                && mHiViewPager != null
+                && mAdapter.getLayoutResId() == layoutResId
+                && mAdapter.getRealCount() > 0
+                && !models.isEmpty();
+    }
+
+    /**
+     * 增量更新：复用现有的HiViewPager和页面，只重新绑定变化的页面，并保持当前展示的位置
+     */
+    private void update(@NonNull List<? extends HiBannerMo> models) {
+        int oldCount = mAdapter.getRealCount();
+        int currentPosition = mHiViewPager.getCurrentItem() % oldCount;
+        mHiBannerMos = models;
+        int newCount = models.size();
+        boolean countChanged = mAdapter.updateBannerData(models);
+        if (!countChanged) {
+            prefetchAhead(currentPosition);
+            return;
+        }
+        //数量变化时，尽量停留在原来的位置上，超出范围则停留在最后一页
+        currentPosition = Math.min(currentPosition, newCount - 1);
+        int item = currentPosition;
+        if (mLoop || mAutoPlay) {
+            item = mAdapter.getFirstItem() + currentPosition;
+        }
+        mHiIndicator.onInflate(newCount);
+        mHiViewPager.setCurrentItem(item, false);
+        mHiIndicator.onPointChange(currentPosition, newCount);
+        prefetchAhead(currentPosition);
+    }
+
+    /**
+     * 预加载自动播放方向上即将展示的页面，以Banner的尺寸作为解码的目标尺寸
+     */
+    private void prefetchAhead(int current) {
+        if (mBanner.getWidth() == 0 || mBanner.getHeight() == 0) {
+            mPendingPrefetchPosition = current;
+            if (!mPrefetchPending) {
+                mPrefetchPending = true;
+                mBanner.addOnLayoutChangeListener(mLayoutChangeListener);
+            }
+            return;
+        }
+        mPrefetcher.prefetchAhead(mHiBannerMos, current, mHiViewPager.getOffscreenPageLimit(),
+                mLoop || mAutoPlay, mBanner.getWidth(), mBanner.getHeight());
     }
 
     @Override
     public void onPageScrolled(int position, float positionOffset, int positionOffsetPixels) {
-        if (null != mOnPageChangeListener && mAdapter.getRealCount() != 0) {
+        if (mAdapter.getRealCount() == 0) {
+            return;
+        }
+        if (null != mOnPageChangeListener) {
             mOnPageChangeListener.onPageScrolled(position % mAdapter.getRealCount(), positionOffset, positionOffsetPixels);
         }
-
+        if (mHiIndicator != null) {
+            mHiIndicator.onPointScrolled(position % mAdapter.getRealCount(), positionOffset, mAdapter.getRealCount());
+        }
     }
 
     @Override
@@ -166,6 +276,7 @@ public class HiBannerDelegate implements ViewPager.OnPageChangeListener, IHiBann
         if (mHiIndicator != null) {
             mHiIndicator.onPointChange(position, mAdapter.getRealCount());
         }
+        prefetchAhead(position);
     }
 
     @Override
@@ -173,5 +284,10 @@ public class HiBannerDelegate implements ViewPager.OnPageChangeListener, IHiBann
         if (mOnPageChangeListener != null) {
             mOnPageChangeListener.onPageScrollStateChanged(state);
         }
+        //手指拖动时方向未知，左右两侧都需要预加载
+        if (state == ViewPager.SCROLL_STATE_DRAGGING && mAdapter.getRealCount() != 0 && mBanner.getWidth() > 0) {
+            mPrefetcher.prefetchAround(mHiBannerMos, mHiViewPager.getCurrentItem() % mAdapter.getRealCount(),
+                    mHiViewPager.getOffscreenPageLimit(), mLoop || mAutoPlay, mBanner.getWidth(), mBanner.getHeight());
+        }
     }
 }
@@ -1,8 +1,19 @@
 package org.devio.hi.ui.banner.core;
 
+import androidx.annotation.NonNull;
+import androidx.core.util.ObjectsCompat;
+
 /**
  * HiBanner的实体类，继承该实体类来实现自己的Mo
  */
 public abstract class HiBannerMo {
     public String url;
+
+    /**
+     * 增量更新时用于判断页面内容是否发生变化，内容相同的页面不会被重新绑定
+     * 默认比较类型和url，子类有更多展示字段时应重写该方法
+     */
+    public boolean areContentsTheSame(@NonNull HiBannerMo other) {
+        return getClass() == other.getClass() && ObjectsCompat.equals(url, other.url);
+    }
 }
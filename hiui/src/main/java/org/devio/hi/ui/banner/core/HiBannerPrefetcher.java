@@ -0,0 +1,152 @@
+package org.devio.hi.ui.banner.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * HiBanner的预加载调度器
+ * 1. 自动播放时预加载播放方向上的后N页，手指拖动时预加载左右各一页
+ * （ViewPager会提前实例化并绑定offscreenPageLimit范围内的页面，因此预加载从该范围之外开始计算）
+ * 2. 统计命中次数：页面绑定时已经预加载过记为命中，否则记为未命中，可据此调整N的大小；
+ * 第一次预加载之前（Banner首次布局时）的绑定无法被预加载，单独计为初始绑定，不计入未命中；
+ * 数据更新时重新绑定已在屏的页面与预加载无关，单独计为重新绑定，同样不计入未命中
+ */
+public class HiBannerPrefetcher {
+    private static final int DEFAULT_PREFETCH_COUNT = 1;
+
+    @Nullable
+    private IPrefetchLoader mLoader;
+    private int mPrefetchCount = DEFAULT_PREFETCH_COUNT;
+    //已经发起预加载、但还没有被绑定展示的数据
+    private final Set<HiBannerMo> mPrefetched = Collections.newSetFromMap(new IdentityHashMap<HiBannerMo, Boolean>());
+    private int mHitCount;
+    private int mMissCount;
+    private int mInitialBindCount;
+    private int mRebindCount;
+    //是否已经发起过预加载，之前的绑定都属于初始绑定
+    private boolean mStarted;
+
+    public void setLoader(@Nullable IPrefetchLoader loader) {
+        this.mLoader = loader;
+        mPrefetched.clear();
+    }
+
+    /**
+     * 设置自动播放方向上预加载的页面数量
+     */
+    public void setPrefetchCount(int prefetchCount) {
+        this.mPrefetchCount = Math.max(0, prefetchCount);
+    }
+
+    public int getPrefetchCount() {
+        return mPrefetchCount;
+    }
+
+    public int getHitCount() {
+        return mHitCount;
+    }
+
+    public int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return 第一次预加载之前的绑定次数，这些页面在预加载开始前就已经展示
+     */
+    public int getInitialBindCount() {
+        return mInitialBindCount;
+    }
+
+    /**
+     * @return 数据更新时重新绑定已在屏页面的次数
+     */
+    public int getRebindCount() {
+        return mRebindCount;
+    }
+
+    public void resetCounters() {
+        mHitCount = 0;
+        mMissCount = 0;
+        mInitialBindCount = 0;
+        mRebindCount = 0;
+    }
+
+    /**
+     * 预加载自动播放方向上的后N页
+     *
+     * @param current        当前页在数据集中的位置
+     * @param offscreenLimit ViewPager的offscreenPageLimit，该范围内的页面已经绑定，无需预加载
+     * @param loop           是否可以循环，不循环时不会越过最后一页
+     */
+    void prefetchAhead(@NonNull List<? extends HiBannerMo> models, int current, int offscreenLimit,
+                       boolean loop, int width, int height) {
+        for (int i = 1; i <= mPrefetchCount; i++) {
+            prefetch(models, current + offscreenLimit + i, loop, width, height);
+        }
+    }
+
+    /**
+     * 手指拖动时方向未知，预加载左右各一页
+     */
+    void prefetchAround(@NonNull List<? extends HiBannerMo> models, int current, int offscreenLimit,
+                        boolean loop, int width, int height) {
+        prefetch(models, current - offscreenLimit - 1, loop, width, height);
+        prefetch(models, current + offscreenLimit + 1, loop, width, height);
+    }
+
+    /**
+     * 页面绑定数据时回调，用于统计命中率
+     */
+    void onBind(@NonNull HiBannerMo mo) {
+        if (mLoader == null) {
+            return;
+        }
+        if (!mStarted) {
+            mInitialBindCount++;
+        } else if (mPrefetched.remove(mo)) {
+            mHitCount++;
+        } else {
+            mMissCount++;
+        }
+    }
+
+    /**
+     * 数据更新时已在屏的页面重新绑定数据时回调，不影响命中率
+     */
+    void onRebind(@NonNull HiBannerMo mo) {
+        if (mLoader != null) {
+            mRebindCount++;
+        }
+    }
+
+    /**
+     * Banner数据整体变化时，清除已预加载的记录
+     */
+    void clear() {
+        mPrefetched.clear();
+        mStarted = false;
+    }
+
+    private void prefetch(List<? extends HiBannerMo> models, int position, boolean loop, int width, int height) {
+        int count = models.size();
+        if (mLoader == null || count == 0) {
+            return;
+        }
+        if (position < 0 || position >= count) {
+            if (!loop) {
+                return;
+            }
+            position = (position % count + count) % count;
+        }
+        HiBannerMo mo = models.get(position);
+        mStarted = true;
+        if (mPrefetched.add(mo)) {
+            mLoader.prefetch(mo, width, height);
+        }
+    }
+}
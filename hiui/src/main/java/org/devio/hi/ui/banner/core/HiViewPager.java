@@ -3,10 +3,17 @@ package org.devio.hi.ui.banner.core;
 import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.content.Context;
-import android.os.Handler;
+import android.content.ContextWrapper;
+import android.graphics.Rect;
 import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewTreeObserver;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
 import androidx.viewpager.widget.ViewPager;
 
 import java.lang.reflect.Field;
@@ -15,8 +22,15 @@ import java.lang.reflect.Field;
  * 自定义的ViewPager，实现了以下功能：
  * 1.自动播放
  * 实现了自动翻页的ViewPager
+ * 2.可见性感知
+ * 不在屏幕上（被RecyclerView回收、在ScrollView中滑出屏幕、被遮挡、所在页面进入后台或STOPPED）时暂停自动播放，重新可见后从当前页继续
  */
-public class HiViewPager extends ViewPager {
+public class HiViewPager extends ViewPager implements HiAutoPlayScheduler.Target {
+
+    /**
+     * 未设置滚动时长时，fakeDrag方式使用的默认翻页时长
+     */
+    private static final int DEFAULT_SCROLL_DURATION = 600;
 
     //滚动的时间间隔
     private int mIntervalTime;
@@ -26,16 +40,59 @@ public class HiViewPager extends ViewPager {
     private boolean mAutoPlay = true;
     private boolean isLayout;
 
-    //结合Handler和Runnable，来实现定时播放的功能
-    private Handler mHandler = new Handler();
+    //以下状态共同决定是否需要自动播放，任一条件不满足都会暂停
+    private boolean mAttached;
+    private boolean mWindowVisible = true;
+    private boolean mTouching;
+    private boolean mLifecycleStarted = true;
+    @Nullable
+    private Lifecycle mLifecycle;
+    private final Rect mVisibleRect = new Rect();
+    //是否有区域显示在屏幕上，通过ViewTreeObserver在滚动时更新，滑出屏幕后不再占用调度器
+    private boolean mOnScreen;
+
+    private final ViewTreeObserver.OnScrollChangedListener mScrollChangedListener = new ViewTreeObserver.OnScrollChangedListener() {
+        @Override
+        public void onScrollChanged() {
+            updateOnScreen();
+        }
+    };
 
-    private Runnable mRunnable = new Runnable() {
+    /**
+     * 是否使用不依赖反射的翻页方式：通过ViewPager公开的fakeDrag API驱动翻页动画，
+     * 反射不可用（如字段被混淆或移除）时也会自动退回到该方式
+     */
+    private boolean mReflectionFree;
+    private int mScrollDuration = DEFAULT_SCROLL_DURATION;
+    @Nullable
+    private HiBannerScroller mFakeDragScroller;
+    private int mFakeDragLastX;
 
+    private final Runnable mFakeDragRunnable = new Runnable() {
+        @Override
         public void run() {
-            next();
-            mHandler.postDelayed(this, mIntervalTime);//延时一定时间执行下一次
+            if (mFakeDragScroller == null || !isFakeDragging()) {
+                return;
+            }
+            boolean scrolling = mFakeDragScroller.computeScrollOffset();
+            int currX = mFakeDragScroller.getCurrX();
+            //向左拖动才是翻到下一页，所以偏移量取负
+            fakeDragBy(mFakeDragLastX - currX);
+            mFakeDragLastX = currX;
+            if (scrolling && !mFakeDragScroller.isFinished()) {
+                postOnAnimation(this);
+            } else {
+                endFakeDrag();
+            }
         }
+    };
 
+    private final LifecycleEventObserver mLifecycleObserver = new LifecycleEventObserver() {
+        @Override
+        public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+            mLifecycleStarted = source.getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED);
+            updateAutoPlay();
+        }
     };
 
 
@@ -45,9 +102,7 @@ public class HiViewPager extends ViewPager {
 
     public void setAutoPlay(boolean autoPlay) {
         this.mAutoPlay = autoPlay;
-        if (!mAutoPlay) {
-            mHandler.removeCallbacks(mRunnable);
-        }
+        updateAutoPlay();
     }
 
 
@@ -60,10 +115,13 @@ public class HiViewPager extends ViewPager {
         switch (ev.getAction()) {
             case MotionEvent.ACTION_UP:
             case MotionEvent.ACTION_CANCEL:
+                mTouching = false;
                 start();
                 break;
             default:
+                mTouching = true;
                 stop();
+                stopFakeDrag();
                 break;
         }
 
@@ -74,6 +132,8 @@ public class HiViewPager extends ViewPager {
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
         super.onLayout(changed, l, t, r, b);
         isLayout = true;
+        //布局之前getGlobalVisibleRect总是false，布局完成后再确定是否在屏幕上
+        updateOnScreen();
     }
 
     /**
@@ -87,56 +147,120 @@ public class HiViewPager extends ViewPager {
      * 在onAttachedToWindow中，mFirstLayout被重置为true，所以下一次滚动就没有动画。
      * 
      * 所以这里我们需要重写onAttachedToWindow，通过反射的方式将私有变量“mFirstLayout”设置为false，
+     * 反射得到的Field只在进程内解析一次（见PagerFields），RecyclerView中反复attach不再重复反射；
+     * 使用fakeDrag翻页时，翻页动画由我们自己驱动，不受mFirstLayout影响，因此无需反射
      * 
      * fix 使用RecyclerView + ViewPager bug https://blog.csdn.net/u011002668/article/details/72884893
      */
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
-        if (isLayout && getAdapter() != null && getAdapter().getCount() > 0) {
+        if (!useFakeDrag() && isLayout && getAdapter() != null && getAdapter().getCount() > 0) {
             try {
-                //通过getDeclaredField获取私有变量"mFirstLayout"
-                //setAccessible(true)的意思是设置该字段为可访问字段，即使是private，也可以强制访问
-                Field mFirstLayout = ViewPager.class.getDeclaredField("mFirstLayout");
-                mFirstLayout.setAccessible(true);
-                mFirstLayout.set(this, false);
+                PagerFields.FIRST_LAYOUT.set(this, false);
             } catch (Exception e) {
                 e.printStackTrace();
             }
         }
+        mAttached = true;
+        getViewTreeObserver().addOnScrollChangedListener(mScrollChangedListener);
+        mOnScreen = getGlobalVisibleRect(mVisibleRect);
+        observeLifecycle();
         start();
     }
 
     /**
      * ViewPager的onDetachFromWindow方法会把动画直接停掉，需要想办法进行保护
-     * 当activitydestroy的时候，给自定义ViewPager一个标志位hasActivityDestroy，只有hasActivityDestroy为true的时候，才调用父类的super.onDetachedFromWindow();
+     * 只有宿主页面销毁（Lifecycle为DESTROYED或Activity正在finish）的时候，才调用父类的super.onDetachedFromWindow();
      */
     @Override
     protected void onDetachedFromWindow() {
         //fix 使用RecyclerView + ViewPager bug
-        if (((Activity) getContext()).isFinishing()) {
+        if (isHostFinishing()) {
             super.onDetachedFromWindow();
         }
+        mAttached = false;
+        getViewTreeObserver().removeOnScrollChangedListener(mScrollChangedListener);
+        stopFakeDrag();
+        if (mLifecycle != null) {
+            mLifecycle.removeObserver(mLifecycleObserver);
+            mLifecycle = null;
+        }
         stop();
     }
 
+    /**
+     * 页面进入后台、被其他Activity完全遮挡时，window会变为不可见
+     */
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        mWindowVisible = visibility == View.VISIBLE;
+        updateAutoPlay();
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateAutoPlay();
+    }
+
     /**
      * 利用反射，设置HiBannerScroller中的duration，从而设置ViewPager的滚动速度
+     * 使用fakeDrag翻页时，不再反射替换mScroller，自动翻页直接使用该duration
      *
      * @param duration page切换的时间长度
      */
     public void setScrollDuration(int duration) {
+        mScrollDuration = duration;
+        mFakeDragScroller = null;
+        if (useFakeDrag()) {
+            return;
+        }
         try {
-            Field scrollerField = ViewPager.class.getDeclaredField("mScroller");
-            //通过getDeclaredField获取私有变量"mScroller"
-                //setAccessible(true)的意思是设置该字段为可访问字段，即使是private，也可以强制访问
-            scrollerField.setAccessible(true);
-            scrollerField.set(this, new HiBannerScroller(getContext(), duration));
+            PagerFields.SCROLLER.set(this, new HiBannerScroller(getContext(), duration));
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * 设置是否使用不依赖反射的翻页方式
+     *
+     * @param reflectionFree true：通过fakeDrag驱动自动翻页，不再反射ViewPager的私有字段
+     */
+    public void setReflectionFree(boolean reflectionFree) {
+        this.mReflectionFree = reflectionFree;
+    }
+
+    private boolean useFakeDrag() {
+        return mReflectionFree || !PagerFields.AVAILABLE;
+    }
+
+    /**
+     * 通过fakeDrag翻到下一页，滚动时长与HiBannerScroller保持一致
+     */
+    private boolean fakeDragToNext() {
+        int pageWidth = getWidth() - getPaddingLeft() - getPaddingRight() + getPageMargin();
+        if (pageWidth <= 0 || isFakeDragging() || !beginFakeDrag()) {
+            return false;
+        }
+        if (mFakeDragScroller == null) {
+            mFakeDragScroller = new HiBannerScroller(getContext(), mScrollDuration);
+        }
+        mFakeDragLastX = 0;
+        mFakeDragScroller.startScroll(0, 0, pageWidth, 0);
+        postOnAnimation(mFakeDragRunnable);
+        return true;
+    }
+
+    private void stopFakeDrag() {
+        removeCallbacks(mFakeDragRunnable);
+        if (isFakeDragging()) {
+            endFakeDrag();
+        }
+    }
+
     /**
      * 设置页面停留时间
      *
@@ -146,18 +270,79 @@ public class HiViewPager extends ViewPager {
         this.mIntervalTime = intervalTime;
     }
 
+    /**
+     * 重新开始计时，满足自动播放条件时，一个停留时间之后翻到下一页
+     */
     public void start() {
-        mHandler.removeCallbacksAndMessages(null);
-        if (mAutoPlay) {
-            mHandler.postDelayed(mRunnable, mIntervalTime);
-        }
+        HiAutoPlayScheduler.getInstance().cancel(this);
+        updateAutoPlay();
     }
 
     /**
      * 停止Timer
      */
     public void stop() {
-        mHandler.removeCallbacksAndMessages(null);
+        HiAutoPlayScheduler.getInstance().cancel(this);
+    }
+
+    @Override
+    public int getIntervalTime() {
+        return mIntervalTime;
+    }
+
+    @Override
+    public void onAutoPlayTick() {
+        next();
+    }
+
+    /**
+     * 仍挂在window上但已滑出屏幕（如ScrollView中）时取消调度，重新滑入屏幕后从当前页继续计时
+     */
+    private void updateOnScreen() {
+        boolean onScreen = getGlobalVisibleRect(mVisibleRect);
+        if (onScreen != mOnScreen) {
+            mOnScreen = onScreen;
+            updateAutoPlay();
+        }
+    }
+
+    /**
+     * 根据当前的可见性、生命周期以及触摸状态，决定是否向调度器注册自动播放
+     */
+    private void updateAutoPlay() {
+        HiAutoPlayScheduler scheduler = HiAutoPlayScheduler.getInstance();
+        boolean shouldPlay = mAutoPlay && mAttached && mWindowVisible && mLifecycleStarted && !mTouching && mOnScreen && isShown();
+        if (!shouldPlay) {
+            scheduler.cancel(this);
+        } else if (!scheduler.isScheduled(this)) {
+            scheduler.schedule(this);
+        }
+    }
+
+    private void observeLifecycle() {
+        Context context = getContext();
+        while (context instanceof ContextWrapper && !(context instanceof LifecycleOwner)) {
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        if (context instanceof LifecycleOwner) {
+            mLifecycle = ((LifecycleOwner) context).getLifecycle();
+            mLifecycleStarted = mLifecycle.getCurrentState().isAtLeast(Lifecycle.State.STARTED);
+            mLifecycle.addObserver(mLifecycleObserver);
+        } else {
+            mLifecycleStarted = true;
+        }
+    }
+
+    private boolean isHostFinishing() {
+        if (mLifecycle != null && mLifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            return true;
+        }
+        Context context = getContext();
+        while (context instanceof ContextWrapper && !(context instanceof Activity)) {
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        //找不到宿主Activity时无法判断，按普通ViewPager处理
+        return !(context instanceof Activity) || ((Activity) context).isFinishing();
     }
 
     /**
@@ -177,7 +362,33 @@ public class HiViewPager extends ViewPager {
         if (nextPosition >= getAdapter().getCount()) {
             nextPosition = ((HiBannerAdapter) getAdapter()).getFirstItem();
         }
-        setCurrentItem(nextPosition, true);
+        if (nextPosition != getCurrentItem() + 1 || !useFakeDrag() || !fakeDragToNext()) {
+            setCurrentItem(nextPosition, true);
+        }
         return nextPosition;
     }
+
+    /**
+     * ViewPager私有字段的反射句柄，类加载时解析一次，整个进程共享；
+     * 解析失败时AVAILABLE为false，HiViewPager会直接走fakeDrag方式，不再每次重试反射
+     */
+    private static final class PagerFields {
+        static final Field SCROLLER = findField("mScroller");
+        static final Field FIRST_LAYOUT = findField("mFirstLayout");
+        static final boolean AVAILABLE = SCROLLER != null && FIRST_LAYOUT != null;
+
+        @Nullable
+        private static Field findField(String name) {
+            try {
+                //通过getDeclaredField获取私有变量
+                //setAccessible(true)的意思是设置该字段为可访问字段，即使是private，也可以强制访问
+                Field field = ViewPager.class.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            } catch (Exception e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+    }
 }
@@ -44,6 +44,18 @@ public interface IHiBanner {
     //设置滚动的速度
     void setScrollDuration(int duration);
 
+    //设置是否使用不依赖反射的翻页方式（基于ViewPager的fakeDrag），同样遵循setScrollDuration设置的时长
+    void setReflectionFree(boolean reflectionFree);
+
+    //设置图片预加载器，即将展示的页面会提前交给它在子线程中下载和解码
+    void setPrefetchLoader(IPrefetchLoader prefetchLoader);
+
+    //设置自动播放方向上预加载的页面数量
+    void setPrefetchCount(int prefetchCount);
+
+    //获取预加载调度器，可通过它查看预加载的命中/未命中次数
+    HiBannerPrefetcher getPrefetcher();
+
     //Banner点击后的监听事件接口
     interface OnBannerClickListener {
         void onBannerClick(@NonNull HiBannerAdapter.HiBannerViewHolder viewHolder, @NonNull HiBannerMo bannerMo, int position);
@@ -0,0 +1,16 @@
+package org.devio.hi.ui.banner.core;
+
+import androidx.annotation.NonNull;
+
+/**
+ * HiBanner的图片预加载接口，基于该接口可以将预加载和具体的图片库解耦
+ * 实现方应在子线程完成下载和解码（如Glide的preload(width, height)），保证页面可见前图片已就绪
+ */
+public interface IPrefetchLoader {
+    /**
+     * @param mo     即将展示的页面数据
+     * @param width  页面的目标宽度，Banner尚未测量时为0
+     * @param height 页面的目标高度，Banner尚未测量时为0
+     */
+    void prefetch(@NonNull HiBannerMo mo, int width, int height);
+}
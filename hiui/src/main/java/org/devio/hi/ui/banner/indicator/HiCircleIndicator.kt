@@ -1,40 +1,40 @@
 package org.devio.hi.ui.banner.indicator
 
 import android.content.Context
+import android.graphics.Canvas
+import android.graphics.Paint
 import android.util.AttributeSet
-import android.view.Gravity
-import android.view.ViewGroup
-import android.widget.FrameLayout
-import android.widget.ImageView
-import android.widget.LinearLayout
-import androidx.annotation.DrawableRes
-import org.devio.hi.library.util.HiDisplayUtil
+import android.view.View
+import androidx.core.content.ContextCompat
 import org.devio.hi.ui.R
 
 /**
  * 圆形指示器
+ * 所有指示点都在onDraw中直接绘制，不再为每一页创建ImageView；
+ * 页面切换和滑动时只invalidate自身，不会触发Banner的重新布局
  */
 class HiCircleIndicator @JvmOverloads constructor(
     context: Context,
     attrs: AttributeSet? = null,
     defStyleAttr: Int = 0
-) : FrameLayout(context, attrs, defStyleAttr), HiIndicator<FrameLayout?> {
-
-    companion object {
-        private const val VWC = ViewGroup.LayoutParams.WRAP_CONTENT
-    }
+) : View(context, attrs, defStyleAttr), HiIndicator<View> {
 
     /**
      * 正常状态下的指示点
      */
-    @DrawableRes
-    private val mPointNormal = R.drawable.shape_point_normal
+    private val mPointNormalPaint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
+        color = ContextCompat.getColor(context, R.color.hi_indicator_point_normal)
+    }
 
     /**
      * 选中状态下的指示点
      */
-    @DrawableRes
-    private val mPointSelected = R.drawable.shape_point_select
+    private val mPointSelectedPaint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
+        color = ContextCompat.getColor(context, R.color.hi_indicator_point_selected)
+    }
+
+    private val mPointNormalRadius = resources.getDimension(R.dimen.hi_indicator_point_normal_radius)
+    private val mPointSelectedRadius = resources.getDimension(R.dimen.hi_indicator_point_selected_radius)
 
     /**
      * 指示点左右内间距
@@ -46,56 +46,82 @@ class HiCircleIndicator @JvmOverloads constructor(
      */
     private var mPointTopBottomPadding = 0
 
+    private var mCount = 0
+
+    /**
+     * 选中指示点的位置，整数部分为当前页，小数部分为滑向下一页的偏移量
+     */
+    private var mPosition = 0
+    private var mPositionOffset = 0f
+
     init {
-        mPointLeftRightPadding = HiDisplayUtil.dp2px(5f, context.resources)
-        mPointTopBottomPadding = HiDisplayUtil.dp2px(15f, context.resources)
+        mPointLeftRightPadding = resources.getDimensionPixelSize(R.dimen.hi_indicator_point_horizontal_padding)
+        mPointTopBottomPadding = resources.getDimensionPixelSize(R.dimen.hi_indicator_point_vertical_padding)
     }
 
-    override fun get(): FrameLayout {
+    override fun get(): View {
         return this
     }
 
     override fun onInflate(count: Int) {
-        removeAllViews()
-        if (count <= 0) {
+        val countChanged = mCount != count
+        mCount = Math.max(0, count)
+        mPosition = 0
+        mPositionOffset = 0f
+        if (countChanged) {
+            requestLayout()
+        }
+        invalidate()
+    }
+
+    override fun onPointChange(current: Int, count: Int) {
+        if (mPosition == current && mPositionOffset == 0f) {
             return
         }
-        val groupView = LinearLayout(context)
-        groupView.orientation = LinearLayout.HORIZONTAL
-        var imageView: ImageView
-        val imageViewParams = LinearLayout.LayoutParams(VWC, VWC)
-        imageViewParams.gravity = Gravity.CENTER_VERTICAL
-        imageViewParams.setMargins(
-            mPointLeftRightPadding,
-            mPointTopBottomPadding,
-            mPointLeftRightPadding,
-            mPointTopBottomPadding
-        )
-        for (i in 0 until count) {
-            imageView = ImageView(context)
-            imageView.layoutParams = imageViewParams
-            if (i == 0) {
-                imageView.setImageResource(mPointSelected)
-            } else {
-                imageView.setImageResource(mPointNormal)
-            }
-            groupView.addView(imageView)
+        mPosition = current
+        mPositionOffset = 0f
+        invalidate()
+    }
+
+    override fun onPointScrolled(position: Int, positionOffset: Float, count: Int) {
+        if (mPosition == position && mPositionOffset == positionOffset) {
+            return
         }
-        val groupViewParams = LayoutParams(VWC, VWC)
-        groupViewParams.gravity = Gravity.CENTER or Gravity.BOTTOM
-        addView(groupView, groupViewParams)
+        mPosition = position
+        mPositionOffset = positionOffset
+        invalidate()
     }
 
-    override fun onPointChange(current: Int, count: Int) {
-        val viewGroup = getChildAt(0) as ViewGroup
-        for (i in 0 until viewGroup.childCount) {
-            val imageView = viewGroup.getChildAt(i) as ImageView
-            if (i == current) {
-                imageView.setImageResource(mPointSelected)
-            } else {
-                imageView.setImageResource(mPointNormal)
-            }
-            imageView.requestLayout()
+    override fun onMeasure(widthMeasureSpec: Int, heightMeasureSpec: Int) {
+        val width = mCount * pointSlotWidth()
+        val height = (mPointSelectedRadius * 2 + mPointTopBottomPadding * 2).toInt()
+        setMeasuredDimension(
+            resolveSize(width, widthMeasureSpec),
+            resolveSize(height, heightMeasureSpec)
+        )
+    }
+
+    override fun onDraw(canvas: Canvas) {
+        if (mCount <= 0) {
+            return
+        }
+        val slotWidth = pointSlotWidth()
+        //指示点整体位于底部居中
+        val startX = (width - mCount * slotWidth) / 2f + slotWidth / 2f
+        val centerY = height - mPointTopBottomPadding - mPointSelectedRadius
+        for (i in 0 until mCount) {
+            canvas.drawCircle(startX + i * slotWidth, centerY, mPointNormalRadius, mPointNormalPaint)
         }
+        //滑向下一页时选中点跟随偏移量平滑移动，从最后一页循环回第一页时则在过半后直接切换
+        val selectedX = if (mPosition + 1 < mCount) {
+            startX + (mPosition + mPositionOffset) * slotWidth
+        } else {
+            startX + (if (mPositionOffset > 0.5f) 0 else mPosition) * slotWidth
+        }
+        canvas.drawCircle(selectedX, centerY, mPointSelectedRadius, mPointSelectedPaint)
+    }
+
+    private fun pointSlotWidth(): Int {
+        return (mPointSelectedRadius * 2).toInt() + mPointLeftRightPadding * 2
     }
-}
\ No newline at end of file
+}
@@ -25,4 +25,14 @@ public interface HiIndicator<T extends View> {
      * @param count   幻灯片数量
      */
     void onPointChange(int current, int count);
+
+    /**
+     * 幻灯片滑动回调，可用于让指示器跟随手指平滑移动，默认不处理
+     *
+     * @param position       当前展示的幻灯片位置
+     * @param positionOffset 滑向下一张的偏移比例，取值[0, 1)
+     * @param count          幻灯片数量
+     */
+    default void onPointScrolled(int position, float positionOffset, int count) {
+    }
 }
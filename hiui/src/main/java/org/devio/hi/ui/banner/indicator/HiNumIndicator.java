@@ -1,23 +1,32 @@
 package org.devio.hi.ui.banner.indicator;
 
 import android.content.Context;
+import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
 import android.util.AttributeSet;
-import android.view.Gravity;
-import android.view.ViewGroup;
-import android.widget.FrameLayout;
-import android.widget.LinearLayout;
-import android.widget.TextView;
+import android.util.TypedValue;
+import android.view.View;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import org.devio.hi.library.util.HiDisplayUtil;
 
 /**
  * 数字指示器
+ * 直接绘制"当前 / 总数"：0~9和分隔符的字形在初始化时转换为Path并缓存，绘制时只drawPath，每帧不再排版文字；
+ * 宽度按最大页数固定，页面切换时只invalidate，不会分配字符串，也不会触发布局
  */
-public class HiNumIndicator extends FrameLayout implements HiIndicator<FrameLayout> {
-    private static final int VWC = ViewGroup.LayoutParams.WRAP_CONTENT;
+public class HiNumIndicator extends View implements HiIndicator<View> {
+    private static final char[] SYMBOL = " / ".toCharArray();
+    private static final int TEXT_SIZE_SP = 14;
+    /**
+     * int最多10位数字，逐个数字写入缓冲区后再绘制
+     */
+    private static final int MAX_DIGITS = 10;
+
     /**
      * 指示点左右内间距
      */
@@ -28,6 +37,20 @@ public class HiNumIndicator extends FrameLayout implements HiIndicator<FrameLayo
      */
     private int mPointTopBottomPadding;
 
+    private final Paint mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint.FontMetrics mFontMetrics = new Paint.FontMetrics();
+    //字形缓存：0~9每个数字以及分隔符的轮廓（基线位于y=0）和宽度
+    private final Path[] mDigitPaths = new Path[10];
+    private final float[] mDigitWidths = new float[10];
+    private float mMaxDigitWidth;
+    private final Path mSymbolPath = new Path();
+    private float mSymbolWidth;
+    private final char[] mTextBuffer = new char[MAX_DIGITS];
+
+    private int mCurrent;
+    private int mCount;
+    //按最大页数的位数计算出的固定文字宽度
+    private float mFixedTextWidth;
 
     public HiNumIndicator(Context context) {
         this(context, null);
@@ -45,51 +68,123 @@ public class HiNumIndicator extends FrameLayout implements HiIndicator<FrameLayo
     private void init() {
         mPointLeftRightPadding = HiDisplayUtil.dp2px(10, getContext().getResources());
         mPointTopBottomPadding = HiDisplayUtil.dp2px(10, getContext().getResources());
+        mTextPaint.setColor(Color.WHITE);
+        mTextPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, TEXT_SIZE_SP,
+                getResources().getDisplayMetrics()));
+        mTextPaint.getFontMetrics(mFontMetrics);
+        char[] digit = new char[1];
+        for (int i = 0; i < mDigitWidths.length; i++) {
+            digit[0] = (char) ('0' + i);
+            mDigitPaths[i] = new Path();
+            mTextPaint.getTextPath(digit, 0, 1, 0, 0, mDigitPaths[i]);
+            mDigitWidths[i] = mTextPaint.measureText(digit, 0, 1);
+            mMaxDigitWidth = Math.max(mMaxDigitWidth, mDigitWidths[i]);
+        }
+        mTextPaint.getTextPath(SYMBOL, 0, SYMBOL.length, 0, 0, mSymbolPath);
+        mSymbolWidth = mTextPaint.measureText(SYMBOL, 0, SYMBOL.length);
     }
 
     @Override
-    public FrameLayout get() {
+    public View get() {
         return this;
     }
 
     @Override
     public void onInflate(int count) {
-        removeAllViews();
-        if (count <= 0) {
+        mCurrent = 0;
+        updateCount(count);
+        invalidate();
+    }
+
+    @Override
+    public void onPointChange(int current, int count) {
+        if (mCurrent == current && mCount == count) {
             return;
         }
+        mCurrent = current;
+        updateCount(count);
+        invalidate();
+    }
 
-        LinearLayout groupView = new LinearLayout(getContext());
-        groupView.setOrientation(LinearLayout.HORIZONTAL);
-        groupView.setPadding(0, 0, mPointLeftRightPadding, mPointTopBottomPadding);
+    private void updateCount(int count) {
+        mCount = Math.max(0, count);
+        float fixedTextWidth = mMaxDigitWidth * digitCount(mCount) * 2 + mSymbolWidth;
+        //只有总数的位数变化时才需要重新测量
+        if (fixedTextWidth != mFixedTextWidth) {
+            mFixedTextWidth = fixedTextWidth;
+            requestLayout();
+        }
+    }
 
-        TextView indexTv = new TextView(getContext());
-        indexTv.setText("1");
-        indexTv.setTextColor(Color.WHITE);
-        groupView.addView(indexTv);
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = (int) Math.ceil(mFixedTextWidth) + mPointLeftRightPadding;
+        int height = (int) Math.ceil(mFontMetrics.bottom - mFontMetrics.top) + mPointTopBottomPadding;
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+    }
 
-        TextView symbolTv = new TextView(getContext());
-        symbolTv.setText(" / ");
-        symbolTv.setTextColor(Color.WHITE);
-        groupView.addView(symbolTv);
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        if (mCount <= 0) {
+            return;
+        }
+        float textWidth = numberWidth(mCurrent + 1) + mSymbolWidth + numberWidth(mCount);
+        //文字整体位于右下角，逐个绘制缓存的字形
+        float x = getWidth() - mPointLeftRightPadding - textWidth;
+        float y = getHeight() - mPointTopBottomPadding - mFontMetrics.bottom;
+        x = drawNumber(canvas, mCurrent + 1, x, y);
+        drawGlyph(canvas, mSymbolPath, x, y);
+        x += mSymbolWidth;
+        drawNumber(canvas, mCount, x, y);
+    }
 
-        TextView countTv = new TextView(getContext());
-        countTv.setText(String.valueOf(count));
-        countTv.setTextColor(Color.WHITE);
-        groupView.addView(countTv);
+    private float numberWidth(int value) {
+        float width = 0;
+        int length = writeNumber(value);
+        for (int i = 0; i < length; i++) {
+            width += mDigitWidths[mTextBuffer[i] - '0'];
+        }
+        return width;
+    }
 
-        LayoutParams groupViewParams = new LayoutParams(VWC, VWC);
-        groupViewParams.gravity = Gravity.END | Gravity.BOTTOM;
-        addView(groupView, groupViewParams);
+    /**
+     * 从x开始绘制非负整数，返回绘制后的x
+     */
+    private float drawNumber(Canvas canvas, int value, float x, float y) {
+        int length = writeNumber(value);
+        for (int i = 0; i < length; i++) {
+            int digit = mTextBuffer[i] - '0';
+            drawGlyph(canvas, mDigitPaths[digit], x, y);
+            x += mDigitWidths[digit];
+        }
+        return x;
     }
 
-    @Override
-    public void onPointChange(int current, int count) {
-        ViewGroup viewGroup = (ViewGroup) getChildAt(0);
-        TextView indexTv = (TextView) viewGroup.getChildAt(0);
-        TextView countTv = (TextView) viewGroup.getChildAt(2);
-        indexTv.setText(String.valueOf(current + 1));
-        countTv.setText(String.valueOf(count));
+    private void drawGlyph(Canvas canvas, Path glyph, float x, float y) {
+        int count = canvas.save();
+        canvas.translate(x, y);
+        canvas.drawPath(glyph, mTextPaint);
+        canvas.restoreToCount(count);
     }
 
+    /**
+     * 将非负整数逐位写入mTextBuffer，返回位数
+     */
+    private int writeNumber(int value) {
+        int digits = digitCount(value);
+        for (int i = digits - 1; i >= 0; i--) {
+            mTextBuffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return digits;
+    }
+
+    private static int digitCount(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
 }
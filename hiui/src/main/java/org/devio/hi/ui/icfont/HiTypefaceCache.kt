@@ -0,0 +1,81 @@
+package org.devio.hi.ui.icfont
+
+import android.content.Context
+import android.graphics.Typeface
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 进程内共享的字体缓存，以assets中的路径为key
+ * 1. 同一路径的字体只会从APK中读取、解析一次，之后所有的IconFontTextView、IconFontButton、HiTabBottom共用同一个Typeface
+ * 2. 线程安全，可以在Application启动时调用[preload]在子线程中提前加载，界面创建时就不再有asset读取
+ * 3. 通过[getHitCount]、[getLoadCount]确认字体是否只被解析了一次
+ */
+object HiTypefaceCache {
+    const val ICON_FONT = "fonts/iconfont.ttf"
+
+    private val typefaces = ConcurrentHashMap<String, Typeface>()
+    private val hitCounts = ConcurrentHashMap<String, AtomicInteger>()
+    private val loadCounts = ConcurrentHashMap<String, AtomicInteger>()
+
+    /**
+     * 获取assets中的字体，第一次获取时加载，之后直接返回缓存
+     */
+    @JvmStatic
+    fun get(context: Context, assetPath: String): Typeface {
+        typefaces[assetPath]?.let {
+            counter(hitCounts, assetPath).incrementAndGet()
+            return it
+        }
+        //同一路径只允许一个线程加载，其他线程等待加载完成后直接命中缓存
+        synchronized(this) {
+            typefaces[assetPath]?.let {
+                counter(hitCounts, assetPath).incrementAndGet()
+                return it
+            }
+            val typeface = Typeface.createFromAsset(context.applicationContext.assets, assetPath)
+            counter(loadCounts, assetPath).incrementAndGet()
+            typefaces[assetPath] = typeface
+            return typeface
+        }
+    }
+
+    /**
+     * 在子线程中提前加载字体，建议在Application.onCreate中调用
+     */
+    @JvmStatic
+    fun preload(context: Context, vararg assetPaths: String) {
+        val appContext = context.applicationContext
+        val thread = Thread({
+            for (path in assetPaths) {
+                if (!typefaces.containsKey(path)) {
+                    get(appContext, path)
+                }
+            }
+        }, "HiTypefaceCache")
+        thread.isDaemon = true
+        thread.start()
+    }
+
+    /**
+     * @return 命中缓存的次数
+     */
+    @JvmStatic
+    fun getHitCount(assetPath: String): Int {
+        return hitCounts[assetPath]?.get() ?: 0
+    }
+
+    /**
+     * @return 从APK中读取并解析字体的次数，正常情况下不大于1
+     */
+    @JvmStatic
+    fun getLoadCount(assetPath: String): Int {
+        return loadCounts[assetPath]?.get() ?: 0
+    }
+
+    private fun counter(counts: ConcurrentHashMap<String, AtomicInteger>, assetPath: String): AtomicInteger {
+        counts[assetPath]?.let { return it }
+        val counter = AtomicInteger()
+        return counts.putIfAbsent(assetPath, counter) ?: counter
+    }
+}
@@ -1,7 +1,6 @@
 package org.devio.hi.ui.icfont
 
 import android.content.Context
-import android.graphics.Typeface
 import android.util.AttributeSet
 import androidx.appcompat.widget.AppCompatButton
 
@@ -9,7 +8,6 @@ internal class IconFontButton @JvmOverloads constructor(
     context: Context, attrs: AttributeSet? = null, defStyleAttr: Int = 0
 ) : AppCompatButton(context, attrs, defStyleAttr) {
     init {
-        val typeface = Typeface.createFromAsset(context.assets, "fonts/iconfont.ttf");
-        setTypeface(typeface)
+        setTypeface(HiTypefaceCache.get(context, HiTypefaceCache.ICON_FONT))
     }
 }
\ No newline at end of file
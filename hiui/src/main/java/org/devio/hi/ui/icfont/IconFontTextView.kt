@@ -1,7 +1,6 @@
 package org.devio.hi.ui.icfont
 
 import android.content.Context
-import android.graphics.Typeface
 import android.util.AttributeSet
 import androidx.appcompat.widget.AppCompatTextView
 /**
@@ -11,10 +10,6 @@ class IconFontTextView
 @JvmOverloads constructor(context: Context, attributeSet: AttributeSet?, defStyle: Int = 0) :
     AppCompatTextView(context, attributeSet, defStyle) {
     init {
-        val typeface = Typeface.createFromAsset(
-            context.assets,
-            "fonts/iconfont.ttf"
-        );
-        setTypeface(typeface)
+        setTypeface(HiTypefaceCache.get(context, HiTypefaceCache.ICON_FONT))
     }
 }
\ No newline at end of file
@@ -0,0 +1,203 @@
+package org.devio.hi.ui.refresh;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import org.devio.hi.library.util.HiDisplayUtil;
+import org.devio.hi.ui.R;
+
+/**
+ * 基于Drawable绘制的下拉刷新视图，没有子View
+ * 1. 下拉过程中只把进度（0~1，超出刷新距离后大于1）换算为Drawable的level，不会修改子View，也不会触发布局
+ * 2. 刷新中的动画使用Animatable的Drawable（如AnimatedVectorDrawable），7.1及以上开启硬件加速时动画运行在RenderThread，
+ * onRefresh中主线程被阻塞也不会卡顿
+ */
+public class HiDrawableOverView extends HiOverView {
+    private static final int MAX_LEVEL = 10000;
+
+    private Drawable mProgressDrawable;
+    private Drawable mRefreshDrawable;
+    private int mDrawableSize;
+    private float mProgress;
+    private boolean mRefreshing;
+
+    public HiDrawableOverView(Context context, AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+    }
+
+    public HiDrawableOverView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public HiDrawableOverView(Context context) {
+        super(context);
+    }
+
+    @Override
+    public void init() {
+        setWillNotDraw(false);
+        mDrawableSize = HiDisplayUtil.dp2px(30, getResources());
+        setProgressDrawable(ContextCompat.getDrawable(getContext(), R.drawable.hi_refresh_progress));
+        setRefreshDrawable(ContextCompat.getDrawable(getContext(), R.drawable.hi_refresh_spinner));
+    }
+
+    /**
+     * 设置下拉过程中的指示图，下拉进度通过level（0~10000）传递，如RotateDrawable、ClipDrawable
+     */
+    public void setProgressDrawable(@Nullable Drawable drawable) {
+        mProgressDrawable = swapDrawable(mProgressDrawable, drawable);
+        invalidate();
+    }
+
+    /**
+     * 设置刷新中的指示图，实现了Animatable时刷新开始自动start，结束时stop
+     */
+    public void setRefreshDrawable(@Nullable Drawable drawable) {
+        if (mRefreshDrawable instanceof Animatable) {
+            ((Animatable) mRefreshDrawable).stop();
+        }
+        mRefreshDrawable = swapDrawable(mRefreshDrawable, drawable);
+        if (mRefreshing && mRefreshDrawable instanceof Animatable) {
+            ((Animatable) mRefreshDrawable).start();
+        }
+        invalidate();
+    }
+
+    /**
+     * 设置指示图的大小
+     */
+    public void setDrawableSize(int size) {
+        mDrawableSize = size;
+        updateDrawableBounds(mProgressDrawable);
+        updateDrawableBounds(mRefreshDrawable);
+        invalidate();
+    }
+
+    /**
+     * @return 下拉进度，0~1，超出刷新距离后大于1
+     */
+    public float getProgress() {
+        return mProgress;
+    }
+
+    private Drawable swapDrawable(@Nullable Drawable oldDrawable, @Nullable Drawable newDrawable) {
+        if (oldDrawable != null) {
+            oldDrawable.setCallback(null);
+        }
+        if (newDrawable != null) {
+            newDrawable.setCallback(this);
+            updateDrawableBounds(newDrawable);
+        }
+        return newDrawable;
+    }
+
+    private void updateDrawableBounds(@Nullable Drawable drawable) {
+        if (drawable == null) {
+            return;
+        }
+        //指示图位于刷新区域的中心，即视图底部mPullRefreshHeight高度的中间
+        int left = (getWidth() - mDrawableSize) / 2;
+        int top = getHeight() - (mPullRefreshHeight + mDrawableSize) / 2;
+        drawable.setBounds(left, top, left + mDrawableSize, top + mDrawableSize);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateDrawableBounds(mProgressDrawable);
+        updateDrawableBounds(mRefreshDrawable);
+    }
+
+    @Override
+    void applyPhysics(HiRefreshPhysics physics) {
+        super.applyPhysics(physics);
+        updateDrawableBounds(mProgressDrawable);
+        updateDrawableBounds(mRefreshDrawable);
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return who == mProgressDrawable || who == mRefreshDrawable || super.verifyDrawable(who);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        Drawable drawable = mRefreshing && mRefreshDrawable != null ? mRefreshDrawable : mProgressDrawable;
+        if (drawable != null) {
+            drawable.draw(canvas);
+        }
+    }
+
+    @Override
+    protected void onScroll(int scrollY, int pullRefreshHeight) {
+        if (pullRefreshHeight <= 0) {
+            return;
+        }
+        mProgress = scrollY / (float) pullRefreshHeight;
+        if (!mRefreshing) {
+            onProgress(mProgress);
+        }
+    }
+
+    /**
+     * 下拉进度变化，默认将0~1的进度换算为指示图的level，子类可以重写以实现超出刷新距离后的效果
+     *
+     * @param progress 下拉进度，0~1，超出刷新距离后大于1
+     */
+    protected void onProgress(float progress) {
+        if (mProgressDrawable != null
+                && mProgressDrawable.setLevel((int) (Math.min(Math.max(progress, 0f), 1f) * MAX_LEVEL))) {
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onVisible() {
+    }
+
+    @Override
+    public void onOver() {
+    }
+
+    @Override
+    public void onRefresh() {
+        mRefreshing = true;
+        if (mRefreshDrawable instanceof Animatable) {
+            ((Animatable) mRefreshDrawable).start();
+        }
+        invalidate();
+    }
+
+    @Override
+    public void onFinish() {
+        mRefreshing = false;
+        if (mRefreshDrawable instanceof Animatable) {
+            ((Animatable) mRefreshDrawable).stop();
+        }
+        invalidate();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (mRefreshDrawable instanceof Animatable) {
+            ((Animatable) mRefreshDrawable).stop();
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (mRefreshing && mRefreshDrawable instanceof Animatable) {
+            ((Animatable) mRefreshDrawable).start();
+        }
+    }
+}
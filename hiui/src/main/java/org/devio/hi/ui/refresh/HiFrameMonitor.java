@@ -0,0 +1,90 @@
+package org.devio.hi.ui.refresh;
+
+import android.content.Context;
+import android.view.Choreographer;
+import android.view.WindowManager;
+
+import androidx.annotation.Nullable;
+
+/**
+ * 下拉过程中的帧监控，通过相邻两帧的时间间隔统计掉帧数，在一次下拉结束后回调
+ */
+class HiFrameMonitor implements Choreographer.FrameCallback {
+    private static final float DEFAULT_REFRESH_RATE = 60f;
+
+    private final Choreographer mChoreographer = Choreographer.getInstance();
+    private final long mFrameIntervalNanos;
+    @Nullable
+    private HiRefresh.HiFrameMetricsListener mListener;
+    private boolean mRunning;
+    private long mLastFrameTimeNanos;
+    private int mTotalFrames;
+    private int mDroppedFrames;
+
+    HiFrameMonitor(Context context) {
+        float refreshRate = DEFAULT_REFRESH_RATE;
+        WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        if (windowManager != null && windowManager.getDefaultDisplay().getRefreshRate() > 0) {
+            refreshRate = windowManager.getDefaultDisplay().getRefreshRate();
+        }
+        mFrameIntervalNanos = (long) (1_000_000_000L / refreshRate);
+    }
+
+    void setListener(@Nullable HiRefresh.HiFrameMetricsListener listener) {
+        this.mListener = listener;
+        if (listener == null) {
+            cancel();
+        }
+    }
+
+    /**
+     * 下拉开始，已经在监控中则忽略
+     */
+    void start() {
+        if (mListener == null || mRunning) {
+            return;
+        }
+        mRunning = true;
+        mLastFrameTimeNanos = 0;
+        mTotalFrames = 0;
+        mDroppedFrames = 0;
+        mChoreographer.postFrameCallback(this);
+    }
+
+    /**
+     * 下拉结束（回弹完成），回调本次下拉的帧数据
+     */
+    void stop() {
+        if (!mRunning) {
+            return;
+        }
+        cancel();
+        if (mListener != null && mTotalFrames > 0) {
+            mListener.onPullFrames(mTotalFrames, mDroppedFrames);
+        }
+    }
+
+    /**
+     * 中止监控，不回调
+     */
+    void cancel() {
+        mRunning = false;
+        mChoreographer.removeFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning) {
+            return;
+        }
+        if (mLastFrameTimeNanos > 0) {
+            long skipped = (frameTimeNanos - mLastFrameTimeNanos) / mFrameIntervalNanos - 1;
+            if (skipped > 0) {
+                mDroppedFrames += skipped;
+            }
+            mTotalFrames++;
+        }
+        mLastFrameTimeNanos = frameTimeNanos;
+        mChoreographer.postFrameCallback(this);
+    }
+}
@@ -4,8 +4,6 @@ import android.content.Context;
 import android.util.AttributeSet;
 import android.widget.FrameLayout;
 
-import org.devio.hi.library.util.HiDisplayUtil;
-
 /**
  * 下拉刷新的Overlay视图,可以重载这个类来定义自己的Overlay
  * 继承自FrameLayout，方便扩展
@@ -37,17 +35,26 @@ public abstract class HiOverView extends FrameLayout {
 
     protected HiRefreshState mState = HiRefreshState.STATE_INIT;
     /**
-     * 触发下拉刷新 需要的最小高度
+     * 触发下拉刷新 需要的最小高度，由所在HiRefreshLayout的{@link HiRefreshPhysics}决定
      */
     public int mPullRefreshHeight;
     /**
      * 最小阻尼
+     *
+     * @deprecated 使用{@link HiRefreshPhysics.Builder#setDamp(float, float)}，修改后在下一次下拉时同步到所在HiRefreshLayout的物理参数
      */
-    public float minDamp = 1.6f;
+    @Deprecated
+    public float minDamp = HiRefreshPhysics.DEFAULT_MIN_DAMP;
     /**
      * 最大阻尼（越往下拉阻尼越大）
+     *
+     * @deprecated 使用{@link HiRefreshPhysics.Builder#setDamp(float, float)}，修改后在下一次下拉时同步到所在HiRefreshLayout的物理参数
      */
-    public float maxDamp = 2.2f;
+    @Deprecated
+    public float maxDamp = HiRefreshPhysics.DEFAULT_MAX_DAMP;
+    //最近一次应用的阻尼，用于判断minDamp、maxDamp是否被直接修改过
+    private float mAppliedMinDamp = HiRefreshPhysics.DEFAULT_MIN_DAMP;
+    private float mAppliedMaxDamp = HiRefreshPhysics.DEFAULT_MAX_DAMP;
 
     public HiOverView(Context context, AttributeSet attrs, int defStyle) {
         super(context, attrs, defStyle);
@@ -65,10 +72,31 @@ public abstract class HiOverView extends FrameLayout {
     }
 
     protected void preInit() {
-        mPullRefreshHeight = HiDisplayUtil.dp2px(66, getResources());
+        mPullRefreshHeight = HiRefreshPhysics.getDefault(getResources()).getTriggerHeight();
         init();
     }
 
+    /**
+     * 添加到HiRefreshLayout或其物理参数变化时调用
+     */
+    void applyPhysics(HiRefreshPhysics physics) {
+        mPullRefreshHeight = physics.getTriggerHeight();
+        minDamp = mAppliedMinDamp = physics.getMinDamp();
+        maxDamp = mAppliedMaxDamp = physics.getMaxDamp();
+    }
+
+    /**
+     * 兼容直接修改minDamp、maxDamp的旧用法
+     *
+     * @return 阻尼被修改过时返回替换了阻尼的物理参数，否则返回原参数
+     */
+    HiRefreshPhysics mergeDamp(HiRefreshPhysics physics) {
+        if (minDamp == mAppliedMinDamp && maxDamp == mAppliedMaxDamp) {
+            return physics;
+        }
+        return physics.newBuilder().setDamp(minDamp, maxDamp).build();
+    }
+
     /**
      * 初始化
      */
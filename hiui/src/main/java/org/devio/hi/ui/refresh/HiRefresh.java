@@ -1,5 +1,10 @@
 package org.devio.hi.ui.refresh;
 
+import android.view.View;
+import android.view.animation.Interpolator;
+
+import androidx.annotation.LayoutRes;
+
 public interface HiRefresh {
     /**
      * 刷新时是否禁止滚动
@@ -27,6 +32,96 @@ public interface HiRefresh {
      */
     void setRefreshOverView(HiOverView hiOverView);
 
+    /**
+     * 设置下拉的物理参数，同一个实例可以在多个HiRefreshLayout之间共享，传null恢复默认参数
+     *
+     * @param physics 下拉的物理参数
+     */
+    void setRefreshPhysics(HiRefreshPhysics physics);
+
+    HiRefreshPhysics getRefreshPhysics();
+
+    /**
+     * 设置松手回弹动画的插值器，如LinearInterpolator、HiSpringInterpolator
+     *
+     * @param interpolator 回弹动画的插值器
+     */
+    void setRecoverInterpolator(Interpolator interpolator);
+
+    /**
+     * 设置下拉过程的帧监控回调，传null关闭监控
+     *
+     * @param frameMetricsListener 帧监控回调
+     */
+    void setFrameMetricsListener(HiFrameMetricsListener frameMetricsListener);
+
+    /**
+     * 设置上拉加载更多的视图，放置在内容的下方
+     *
+     * @param loadMoreOverView 上拉加载更多的视图
+     */
+    void setLoadMoreOverView(HiOverView loadMoreOverView);
+
+    /**
+     * 设置上拉加载更多的监听器
+     *
+     * @param loadMoreListener 加载更多的监听器
+     */
+    void setLoadMoreListener(HiLoadMoreListener loadMoreListener);
+
+    /**
+     * 设置自动加载更多的预加载距离，列表滚动到距离底部不足该距离时提前触发加载，两者满足其一即可
+     * 默认均为0，即滚动到底部时触发；任一参数为负数时关闭自动加载，只能通过上拉触发
+     *
+     * @param prefetchItems    距离底部剩余的条目数，适用于RecyclerView、AbsListView，0表示不按条目预加载
+     * @param prefetchDistance 距离底部剩余的像素，适用于实现了ScrollingView的列表，0表示不按距离预加载
+     */
+    void setLoadMorePrefetch(int prefetchItems, int prefetchDistance);
+
+    /**
+     * 加载更多完成
+     *
+     * @param hasMore 是否还有更多数据，false时不再自动触发加载，直到下一次下拉刷新完成
+     */
+    void loadMoreFinished(boolean hasMore);
+
+    /**
+     * 是否正在加载更多
+     */
+    boolean isLoadingMore();
+
+    /**
+     * 添加一个下拉阶段，多个阶段按阈值升序排列
+     *
+     * @param threshold 进入该阶段需要的下拉距离（px）
+     * @param listener  该阶段的回调
+     */
+    void addPullStage(int threshold, HiPullStageListener listener);
+
+    void removePullStage(HiPullStageListener listener);
+
+    /**
+     * 设置二楼：下拉超过threshold后松手，二楼视图铺满整个HiRefreshLayout
+     * 二楼视图在第一次越过刷新高度时才异步加载，也可以调用{@link #preloadSecondFloor()}提前加载
+     * 下拉时最大下拉距离至少为threshold的1.5倍，不会修改{@link #getRefreshPhysics()}返回的物理参数
+     *
+     * @param layoutResId 二楼的布局，传0移除二楼
+     * @param threshold   进入二楼需要的下拉距离（px），应大于刷新高度
+     * @param listener    二楼的回调
+     */
+    void setSecondFloor(@LayoutRes int layoutResId, int threshold, HiSecondFloorListener listener);
+
+    /**
+     * 在后台线程提前加载二楼视图
+     */
+    void preloadSecondFloor();
+
+    void openSecondFloor();
+
+    void closeSecondFloor();
+
+    boolean isSecondFloorOpened();
+
     /**
      * 定义下拉刷新的监听器
      */
@@ -36,4 +131,61 @@ public interface HiRefresh {
 
         boolean enableRefresh();
     }
+
+    /**
+     * 下拉过程的帧监控回调
+     */
+    interface HiFrameMetricsListener {
+        /**
+         * 一次下拉（从开始拖动到回弹结束）完成后回调
+         *
+         * @param totalFrames   期间渲染的总帧数
+         * @param droppedFrames 期间掉帧的数量
+         */
+        void onPullFrames(int totalFrames, int droppedFrames);
+    }
+
+    /**
+     * 定义上拉加载更多的监听器
+     */
+    interface HiLoadMoreListener {
+
+        void onLoadMore();
+
+        boolean enableLoadMore();
+    }
+
+    /**
+     * 下拉阶段的回调
+     */
+    interface HiPullStageListener {
+        /**
+         * 下拉距离越过该阶段的阈值
+         */
+        void onStageEnter();
+
+        /**
+         * 下拉距离退回到该阶段的阈值以下
+         */
+        void onStageExit();
+
+        /**
+         * 在该阶段松手
+         */
+        void onStageRelease();
+    }
+
+    /**
+     * 二楼的回调
+     */
+    interface HiSecondFloorListener {
+        /**
+         * 二楼视图加载完成，可以在这里绑定数据
+         */
+        void onSecondFloorInflated(View secondFloor);
+
+        void onSecondFloorOpened();
+
+        void onSecondFloorClosed();
+    }
 }
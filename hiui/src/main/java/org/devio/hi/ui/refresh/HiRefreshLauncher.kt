@@ -0,0 +1,162 @@
+package org.devio.hi.ui.refresh
+
+import android.os.SystemClock
+import android.view.View
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleEventObserver
+import androidx.lifecycle.LifecycleOwner
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.TimeoutCancellationException
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withTimeout
+import java.util.Arrays
+
+/**
+ * 基于协程的下拉刷新
+ * 1. 刷新逻辑写成挂起函数，执行结束（正常完成、超时或被取消）后自动调用refreshFinished，无需手动收起头部
+ * 2. 刷新进行中再次触发会被合并，同一时间只有一个刷新任务
+ * 3. HiRefreshLayout从窗口移除，或者lifecycle进入ON_STOP时取消进行中的刷新；ON_DESTROY后不再响应刷新
+ * 4. 每次刷新的耗时记录在固定大小的窗口中，通过[HiRefreshMetricsListener]回调分位数
+ */
+class HiRefreshLauncher private constructor(
+    private val refreshLayout: HiRefreshLayout,
+    private val lifecycle: Lifecycle?,
+    private val block: suspend () -> Unit
+) : HiRefresh.HiRefreshListener, View.OnAttachStateChangeListener, LifecycleEventObserver {
+
+    companion object {
+        const val DEFAULT_TIMEOUT = 15_000L
+        private const val LATENCY_WINDOW = 64
+
+        /**
+         * 为HiRefreshLayout设置协程刷新监听
+         *
+         * @param owner 传入时跟随其生命周期取消刷新，可以为null
+         * @param block 刷新逻辑，在主线程启动，耗时操作需自行切换Dispatcher
+         */
+        @JvmStatic
+        fun launch(
+            refreshLayout: HiRefreshLayout,
+            owner: LifecycleOwner?,
+            block: suspend () -> Unit
+        ): HiRefreshLauncher {
+            val launcher = HiRefreshLauncher(refreshLayout, owner?.lifecycle, block)
+            refreshLayout.setRefreshListener(launcher)
+            refreshLayout.addOnAttachStateChangeListener(launcher)
+            owner?.lifecycle?.addObserver(launcher)
+            return launcher
+        }
+    }
+
+    /**
+     * 刷新的超时时间，超时后取消刷新并收起头部
+     */
+    var timeoutMillis = DEFAULT_TIMEOUT
+
+    /**
+     * 是否允许下拉刷新
+     */
+    var enable: () -> Boolean = { true }
+
+    var metricsListener: HiRefreshMetricsListener? = null
+
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.Main.immediate)
+    private var job: Job? = null
+    private var destroyed = false
+
+    //最近LATENCY_WINDOW次刷新的耗时，环形写入
+    private val latencies = LongArray(LATENCY_WINDOW)
+    private val sortBuffer = LongArray(LATENCY_WINDOW)
+    private var latencyCount = 0
+
+    override fun onRefresh() {
+        if (destroyed || job?.isActive == true) {
+            return
+        }
+        val start = SystemClock.uptimeMillis()
+        job = scope.launch {
+            var timeout = false
+            try {
+                withTimeout(timeoutMillis) { block() }
+            } catch (e: TimeoutCancellationException) {
+                timeout = true
+            } finally {
+                refreshLayout.refreshFinished()
+            }
+            recordLatency(SystemClock.uptimeMillis() - start, timeout)
+        }
+    }
+
+    override fun enableRefresh(): Boolean {
+        return !destroyed && enable()
+    }
+
+    /**
+     * 是否有进行中的刷新
+     */
+    fun isRefreshing(): Boolean {
+        return job?.isActive == true
+    }
+
+    /**
+     * 取消进行中的刷新，头部会自动收起
+     */
+    fun cancel() {
+        job?.cancel()
+        job = null
+    }
+
+    override fun onViewAttachedToWindow(v: View) {
+    }
+
+    override fun onViewDetachedFromWindow(v: View) {
+        cancel()
+    }
+
+    override fun onStateChanged(source: LifecycleOwner, event: Lifecycle.Event) {
+        if (event == Lifecycle.Event.ON_STOP) {
+            cancel()
+        } else if (event == Lifecycle.Event.ON_DESTROY) {
+            destroyed = true
+            scope.cancel()
+            lifecycle?.removeObserver(this)
+            refreshLayout.removeOnAttachStateChangeListener(this)
+        }
+    }
+
+    private fun recordLatency(latency: Long, timeout: Boolean) {
+        latencies[latencyCount % LATENCY_WINDOW] = latency
+        latencyCount++
+        val listener = metricsListener ?: return
+        val size = Math.min(latencyCount, LATENCY_WINDOW)
+        System.arraycopy(latencies, 0, sortBuffer, 0, size)
+        Arrays.sort(sortBuffer, 0, size)
+        listener.onRefreshMetrics(
+            latency,
+            timeout,
+            percentile(size, 50),
+            percentile(size, 90),
+            percentile(size, 99)
+        )
+    }
+
+    private fun percentile(size: Int, percent: Int): Long {
+        val index = Math.ceil(size * percent / 100.0).toInt() - 1
+        return sortBuffer[index.coerceIn(0, size - 1)]
+    }
+
+    /**
+     * 刷新耗时的回调，分位数基于最近64次刷新计算，被取消的刷新不计入
+     */
+    interface HiRefreshMetricsListener {
+        /**
+         * @param latencyMillis 本次刷新的耗时
+         * @param timeout       本次刷新是否超时
+         */
+        fun onRefreshMetrics(latencyMillis: Long, timeout: Boolean, p50: Long, p90: Long, p99: Long)
+    }
+}
@@ -1,50 +1,179 @@
 package org.devio.hi.ui.refresh;
 
 import android.content.Context;
+import android.content.res.TypedArray;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.animation.Interpolator;
 import android.view.animation.LinearInterpolator;
 import android.widget.FrameLayout;
+import android.widget.OverScroller;
 import android.widget.Scroller;
 
-import org.devio.hi.library.log.HiLog;
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+import androidx.core.view.NestedScrollingParent3;
+import androidx.core.view.NestedScrollingParentHelper;
+import androidx.core.view.ViewCompat;
+
+import org.devio.hi.ui.R;
 import org.devio.hi.ui.refresh.HiOverView.HiRefreshState;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 下拉刷新界面的外层容器View
+ * 1. 支持嵌套滑动的子View（如RecyclerView）：作为NestedScrollingParent3，直接使用子View未消费的滑动距离和fling余量计算下拉
+ * 2. 不支持嵌套滑动的子View：通过GestureDetector拦截手势计算下拉
+ * 3. 上拉加载更多：列表接近底部时按预加载距离自动触发，支持嵌套滑动的子View还可以到底后上拉露出底部视图触发
+ * 4. 多段下拉：可以按下拉距离注册多个阶段，如66dp刷新、200dp进入二楼，二楼视图在越过刷新高度后才异步加载
  */
-public class HiRefreshLayout extends FrameLayout implements HiRefresh {
-    private static final String TAG = HiRefreshLayout.class.getSimpleName();
+public class HiRefreshLayout extends FrameLayout implements HiRefresh, NestedScrollingParent3 {
     private HiRefreshState mState;
     private GestureDetector mGestureDetector;
     private AutoScroller mAutoScroller;
+    private HiFrameMonitor mFrameMonitor;
+    private HiRefreshPhysics mPhysics;
+    //下拉头部实际使用的物理参数：设置了二楼时放宽最大下拉距离，保证能够到达二楼，不改动用户设置的mPhysics
+    private HiRefreshPhysics mPullPhysics;
     private HiRefresh.HiRefreshListener mHiRefreshListener;
     protected HiOverView mHiOverView;
+    protected HiOverView mLoadMoreOverView;
+    private HiRefresh.HiLoadMoreListener mLoadMoreListener;
+    //加载更多的状态，与下拉刷新的状态相互独立，STATE_REFRESH表示正在加载
+    private HiRefreshState mLoadMoreState = HiRefreshState.STATE_INIT;
+    //是否还有更多数据
+    private boolean mHasMore = true;
+    //是否自动加载更多，以及预加载的条目数和像素距离
+    private boolean mAutoLoadMore = true;
+    private int mLoadMorePrefetchItems;
+    private int mLoadMorePrefetchDistance;
+    //多段下拉的阈值（升序）与对应的回调，以及当前已越过的最深阶段
+    private final List<Integer> mStageThresholds = new ArrayList<>();
+    private final List<HiRefresh.HiPullStageListener> mStageListeners = new ArrayList<>();
+    private int mCurrentStage = -1;
+    //二楼
+    @LayoutRes
+    private int mSecondFloorLayoutId;
+    private int mSecondFloorThreshold;
+    private HiRefresh.HiSecondFloorListener mSecondFloorListener;
+    private View mSecondFloorView;
+    private boolean mSecondFloorInflating;
+    private boolean mSecondFloorOpened;
     //下拉距离的Y轴坐标
     private int mLastY;
     //刷新时是否禁止滚动
     private boolean disableRefreshScroll;
 
+    private NestedScrollingParentHelper mParentHelper;
+    //当前手势是否由子View通过嵌套滑动分发
+    private boolean mNestedScrollInProgress;
+    //阻尼换算后不足1px的下拉距离，累积到下一次使用，避免慢速下拉时距离被取整丢掉
+    private float mPendingOffset;
+    private final int[] mNestedScrollConsumed = new int[2];
+    //按子View开始fling时的速度同步推算fling的减速过程，fling到顶时取出剩余速度交给头部
+    private OverScroller mFlingTracker;
+    //缓存的可滚动child，自身子View变化时清空，使用时确认仍在内容View中，否则重新查找
+    private View mScrollableChild;
+
     public HiRefreshLayout(Context context, AttributeSet attrs) {
         super(context, attrs);
-        init();
+        init(attrs);
     }
 
     public HiRefreshLayout(Context context, AttributeSet attrs, int defStyle) {
         super(context, attrs, defStyle);
-        init();
+        init(attrs);
     }
 
     public HiRefreshLayout(Context context) {
         super(context);
-        init();
+        init(null);
     }
 
-    private void init() {
+    private void init(AttributeSet attrs) {
+        mPhysics = parsePhysics(attrs);
+        updatePullPhysics();
         mGestureDetector = new GestureDetector(getContext(), hiGestureDetector);
         mAutoScroller = new AutoScroller();
+        mFlingTracker = new OverScroller(getContext());
+        mFrameMonitor = new HiFrameMonitor(getContext());
+        mParentHelper = new NestedScrollingParentHelper(this);
+    }
+
+    /**
+     * 没有配置任何物理参数时使用共享的默认参数，不会为每个实例重新换算
+     */
+    private HiRefreshPhysics parsePhysics(AttributeSet attrs) {
+        HiRefreshPhysics physics = HiRefreshPhysics.getDefault(getResources());
+        if (attrs == null) {
+            return physics;
+        }
+        TypedArray array = getContext().obtainStyledAttributes(attrs, R.styleable.HiRefreshLayout);
+        if (array.getIndexCount() > 0) {
+            physics = physics.newBuilder()
+                    .setTriggerHeight(array.getDimensionPixelSize(R.styleable.HiRefreshLayout_refreshTriggerHeight,
+                            physics.getTriggerHeight()))
+                    .setMaxOverscroll(array.getDimensionPixelSize(R.styleable.HiRefreshLayout_refreshMaxOverscroll,
+                            physics.getMaxOverscroll()))
+                    .setDamp(array.getFloat(R.styleable.HiRefreshLayout_refreshMinDamp, physics.getMinDamp()),
+                            array.getFloat(R.styleable.HiRefreshLayout_refreshMaxDamp, physics.getMaxDamp()))
+                    .setRecoverDuration(array.getInt(R.styleable.HiRefreshLayout_refreshRecoverDuration,
+                            physics.getRecoverDuration()))
+                    .build();
+        }
+        array.recycle();
+        return physics;
+    }
+
+    @Override
+    public void setRefreshPhysics(HiRefreshPhysics physics) {
+        mPhysics = physics != null ? physics : HiRefreshPhysics.getDefault(getResources());
+        updatePullPhysics();
+        if (mHiOverView != null) {
+            mHiOverView.applyPhysics(mPhysics);
+        }
+        if (mLoadMoreOverView != null) {
+            mLoadMoreOverView.applyPhysics(mPhysics);
+        }
+    }
+
+    /**
+     * 根据用户的物理参数和二楼高度，计算下拉头部实际使用的物理参数
+     * 设置了二楼时最大下拉距离至少为二楼高度的1.5倍，之后再调用setRefreshPhysics同样生效
+     */
+    private void updatePullPhysics() {
+        int maxOverscroll = mPhysics.getMaxOverscroll();
+        if (mSecondFloorLayoutId != 0) {
+            maxOverscroll = Math.max(maxOverscroll, mSecondFloorThreshold + mSecondFloorThreshold / 2);
+        }
+        mPullPhysics = maxOverscroll == mPhysics.getMaxOverscroll()
+                ? mPhysics : mPhysics.newBuilder().setMaxOverscroll(maxOverscroll).build();
+    }
+
+    /**
+     * 头部视图的minDamp、maxDamp被直接修改过时，同步到物理参数
+     */
+    private void syncDeprecatedDamp() {
+        if (mHiOverView == null) {
+            return;
+        }
+        HiRefreshPhysics physics = mHiOverView.mergeDamp(mPhysics);
+        if (physics != mPhysics) {
+            setRefreshPhysics(physics);
+        }
+    }
+
+    @Override
+    public HiRefreshPhysics getRefreshPhysics() {
+        return mPhysics;
     }
 
     @Override
@@ -55,16 +184,30 @@ public class HiRefreshLayout extends FrameLayout implements HiRefresh {
     @Override
     public void refreshFinished() {
         final View head = getChildAt(0);
-        HiLog.i(this.getClass().getSimpleName(), "refreshFinished head-bottom:" + head.getBottom());
+        if (HiRefreshTracer.isEnabled()) {
+            HiRefreshTracer.trace(HiRefreshTracer.EVENT_FINISH, mState, head.getBottom(), 0);
+        }
         mHiOverView.onFinish();
         mHiOverView.setState(HiRefreshState.STATE_INIT);
+        //刷新后数据重新开始，恢复加载更多
+        mHasMore = true;
         final int bottom = head.getBottom();
         if (bottom > 0) {
             //下over pull 200，height 100
              //  bottom  =100 ,height 100
             recover(bottom);
         }
-        mState = HiRefreshState.STATE_INIT;
+        changeState(HiRefreshState.STATE_INIT);
+    }
+
+    @Override
+    public void setRecoverInterpolator(Interpolator interpolator) {
+        mAutoScroller.setInterpolator(interpolator);
+    }
+
+    @Override
+    public void setFrameMetricsListener(HiFrameMetricsListener frameMetricsListener) {
+        mFrameMonitor.setListener(frameMetricsListener);
     }
 
     @Override
@@ -83,13 +226,172 @@ public class HiRefreshLayout extends FrameLayout implements HiRefresh {
             removeView(mHiOverView);
         }
         this.mHiOverView = hiOverView;
+        syncDeprecatedDamp();
+        mHiOverView.applyPhysics(mPhysics);
         LayoutParams params = new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT);
         addView(mHiOverView, 0, params);
     }
 
+    /**
+     * 设置上拉加载更多的视图
+     *
+     * @param loadMoreOverView
+     */
+    @Override
+    public void setLoadMoreOverView(HiOverView loadMoreOverView) {
+        if (this.mLoadMoreOverView != null) {
+            removeView(mLoadMoreOverView);
+        }
+        this.mLoadMoreOverView = loadMoreOverView;
+        mLoadMoreOverView.applyPhysics(mPhysics);
+        LayoutParams params = new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
+        addView(mLoadMoreOverView, params);
+    }
+
+    @Override
+    public void setLoadMoreListener(HiRefresh.HiLoadMoreListener loadMoreListener) {
+        mLoadMoreListener = loadMoreListener;
+    }
+
+    @Override
+    public void setLoadMorePrefetch(int prefetchItems, int prefetchDistance) {
+        mAutoLoadMore = prefetchItems >= 0 && prefetchDistance >= 0;
+        mLoadMorePrefetchItems = prefetchItems;
+        mLoadMorePrefetchDistance = prefetchDistance;
+    }
+
+    @Override
+    public void loadMoreFinished(boolean hasMore) {
+        if (HiRefreshTracer.isEnabled()) {
+            HiRefreshTracer.trace(HiRefreshTracer.EVENT_FINISH, mLoadMoreState, getFooterOffset(), hasMore ? 1 : 0);
+        }
+        mHasMore = hasMore;
+        mLoadMoreState = HiRefreshState.STATE_INIT;
+        if (mLoadMoreOverView == null) {
+            return;
+        }
+        mLoadMoreOverView.onFinish();
+        mLoadMoreOverView.setState(HiRefreshState.STATE_INIT);
+        int footerOffset = getFooterOffset();
+        if (footerOffset > 0) {
+            mAutoScroller.recover(footerOffset, true);
+        }
+    }
+
+    @Override
+    public boolean isLoadingMore() {
+        return mLoadMoreState == HiRefreshState.STATE_REFRESH;
+    }
+
+    @Override
+    public void addPullStage(int threshold, HiRefresh.HiPullStageListener listener) {
+        removePullStage(listener);
+        int index = 0;
+        while (index < mStageThresholds.size() && mStageThresholds.get(index) <= threshold) {
+            index++;
+        }
+        mStageThresholds.add(index, threshold);
+        mStageListeners.add(index, listener);
+        mCurrentStage = -1;
+    }
+
+    @Override
+    public void removePullStage(HiRefresh.HiPullStageListener listener) {
+        int index = mStageListeners.indexOf(listener);
+        if (index >= 0) {
+            mStageThresholds.remove(index);
+            mStageListeners.remove(index);
+            mCurrentStage = -1;
+        }
+    }
+
+    @Override
+    public void setSecondFloor(@LayoutRes int layoutResId, int threshold, HiRefresh.HiSecondFloorListener listener) {
+        closeSecondFloor();
+        if (mSecondFloorView != null) {
+            removeView(mSecondFloorView);
+            mSecondFloorView = null;
+        }
+        mSecondFloorLayoutId = layoutResId;
+        mSecondFloorThreshold = threshold;
+        mSecondFloorListener = listener;
+        updatePullPhysics();
+    }
+
+    @Override
+    public void preloadSecondFloor() {
+        if (mSecondFloorInflating || mSecondFloorView != null || mSecondFloorLayoutId == 0) {
+            return;
+        }
+        mSecondFloorInflating = true;
+        final int layoutResId = mSecondFloorLayoutId;
+        new AsyncLayoutInflater(getContext()).inflate(layoutResId, this, new AsyncLayoutInflater.OnInflateFinishedListener() {
+            @Override
+            public void onInflateFinished(@NonNull View view, int resid, ViewGroup parent) {
+                mSecondFloorInflating = false;
+                //加载期间二楼被替换或移除
+                if (layoutResId != mSecondFloorLayoutId || mSecondFloorView != null) {
+                    return;
+                }
+                mSecondFloorView = view;
+                updateSecondFloorAlpha(getChildAt(0).getBottom());
+                addView(view, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
+                if (mSecondFloorListener != null) {
+                    mSecondFloorListener.onSecondFloorInflated(view);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void openSecondFloor() {
+        if (mSecondFloorView == null || mSecondFloorOpened || mState == HiRefreshState.STATE_REFRESH) {
+            return;
+        }
+        mSecondFloorOpened = true;
+        mSecondFloorView.setAlpha(1f);
+        //把head和child推出屏幕，二楼铺满整个视图
+        mAutoScroller.recover(getChildAt(0).getBottom() - getHeight(), false, new Runnable() {
+            @Override
+            public void run() {
+                if (mSecondFloorListener != null) {
+                    mSecondFloorListener.onSecondFloorOpened();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void closeSecondFloor() {
+        if (!mSecondFloorOpened) {
+            return;
+        }
+        mSecondFloorOpened = false;
+        if (mHiOverView != null) {
+            mHiOverView.setState(HiRefreshState.STATE_INIT);
+        }
+        mAutoScroller.recover(getChildAt(0).getBottom(), false, new Runnable() {
+            @Override
+            public void run() {
+                if (mSecondFloorListener != null) {
+                    mSecondFloorListener.onSecondFloorClosed();
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean isSecondFloorOpened() {
+        return mSecondFloorOpened;
+    }
+
     HiGestureDetector hiGestureDetector = new HiGestureDetector() {
         @Override
         public boolean onScroll(MotionEvent e1, MotionEvent e2, float disX, float disY) {
+            //手指向上滑动，列表接近底部时自动加载更多
+            if (disY > 0 && Math.abs(disY) > Math.abs(disX)) {
+                checkAutoLoadMore(getScrollableChild());
+            }
             //横向滑动，或刷新被禁止则不处理
             if (Math.abs(disX) > Math.abs(disY) || mHiRefreshListener != null && !mHiRefreshListener.enableRefresh()) {
                 return false;
@@ -101,7 +403,7 @@ public class HiRefreshLayout extends FrameLayout implements HiRefresh {
             }
 
             View head = getChildAt(0);
-            View child = HiScrollUtil.findScrollableChild(HiRefreshLayout.this);
+            View child = getScrollableChild();
             //如果列表发生了滚动则不处理
             if (HiScrollUtil.childScrolled(child)) {
                 return false;
@@ -111,13 +413,10 @@ public class HiRefreshLayout extends FrameLayout implements HiRefresh {
             if ((mState != HiRefreshState.STATE_REFRESH || head.getBottom() <= mHiOverView.mPullRefreshHeight) && (head.getBottom() > 0 || disY <= 0.0F)) {
                 //还在滑动中
                 if (mState != HiRefreshState.STATE_OVER_RELEASE) {
-                    int speed;
                     //根据阻尼，计算出滑动的速度
-                    if (child.getTop() < mHiOverView.mPullRefreshHeight) {
-                        speed = (int) (mLastY / mHiOverView.minDamp);
-                    } else {
-                        speed = (int) (mLastY / mHiOverView.maxDamp);
-                    }
+                    int speed = dampPullDown(mLastY);
+                    //下拉开始，开启帧监控
+                    mFrameMonitor.start();
                     //如果是正在刷新状态，则不允许在滑动的时候改变状态
                     boolean bool = moveDown(speed, true);
                     mLastY = (int) (-disY);
@@ -140,6 +439,14 @@ public class HiRefreshLayout extends FrameLayout implements HiRefresh {
         if (!mAutoScroller.isFinished()) {
             return false;
         }
+        if (ev.getAction() == MotionEvent.ACTION_DOWN) {
+            syncDeprecatedDamp();
+        }
+
+        //子View通过嵌套滑动上报滑动距离时，不再拦截和改写事件，松手由onStopNestedScroll处理；二楼打开时事件全部交给二楼
+        if (mNestedScrollInProgress || mSecondFloorOpened) {
+            return super.dispatchTouchEvent(ev);
+        }
 
         //获取整个ViewGroup的最外层容器
         View head = getChildAt(0);
@@ -150,16 +457,21 @@ public class HiRefreshLayout extends FrameLayout implements HiRefresh {
             if (head.getBottom() > 0) {
                 if (mState != HiRefreshState.STATE_REFRESH) {//如果当前组件的状态不是正在刷新的状态
                     //将组件滚回原位置
-                    recover(head.getBottom());
+                    release(head.getBottom());
                     return false;
                 }
+            } else {
+                //头部没有被拉出，本次下拉已经结束
+                mFrameMonitor.stop();
             }
             mLastY = 0;
         }
 
         //判断用户下拉一直没有松手的状态
         boolean consumed = mGestureDetector.onTouchEvent(ev);
-        HiLog.i(TAG, "gesture consumed：" + consumed);
+        if (HiRefreshTracer.isEnabled()) {
+            HiRefreshTracer.trace(HiRefreshTracer.EVENT_TOUCH, mState, ev.getAction(), consumed ? 1 : 0);
+        }
         if ((consumed || (mState != HiRefreshState.STATE_INIT && mState != HiRefreshState.STATE_REFRESH)) && head.getBottom() != 0) {
             //让父类感受不到真实事件，由我们直接进行伪消费
             ev.setAction(MotionEvent.ACTION_CANCEL);
@@ -174,13 +486,351 @@ public class HiRefreshLayout extends FrameLayout implements HiRefresh {
     }
 
 
+    @Override
+    public boolean onStartNestedScroll(@NonNull View child, @NonNull View target, int axes, int type) {
+        return (axes & ViewCompat.SCROLL_AXIS_VERTICAL) != 0 && !mSecondFloorOpened
+                && (canPullDown() || mLoadMoreListener != null);
+    }
+
+    private boolean canPullDown() {
+        return mHiOverView != null && (mHiRefreshListener == null || mHiRefreshListener.enableRefresh());
+    }
+
+    @Override
+    public void onNestedScrollAccepted(@NonNull View child, @NonNull View target, int axes, int type) {
+        mParentHelper.onNestedScrollAccepted(child, target, axes, type);
+        mPendingOffset = 0;
+        if (type == ViewCompat.TYPE_TOUCH) {
+            mNestedScrollInProgress = true;
+        }
+    }
+
+    @Override
+    public void onStopNestedScroll(@NonNull View target, int type) {
+        mParentHelper.onStopNestedScroll(target, type);
+        if (type == ViewCompat.TYPE_TOUCH) {
+            mNestedScrollInProgress = false;
+        }
+        //松手或fling结束，头部已经被拉出时回弹或触发刷新，底部已经被拉出时回弹或触发加载更多
+        View head = getChildAt(0);
+        int footerOffset = getFooterOffset();
+        if (head.getBottom() > 0) {
+            if (mState != HiRefreshState.STATE_REFRESH && mAutoScroller.isFinished()) {
+                release(head.getBottom());
+            }
+        } else if (footerOffset > 0) {
+            if (mAutoScroller.isFinished()) {
+                recoverFooter(footerOffset);
+            }
+        } else {
+            mFrameMonitor.stop();
+        }
+        mLastY = 0;
+    }
+
+    /**
+     * 子View滑动前：头部已经拉出时，向上的滑动优先用于收起头部；底部已经拉出时，向下的滑动优先用于收起底部
+     */
+    @Override
+    public void onNestedPreScroll(@NonNull View target, int dx, int dy, @NonNull int[] consumed, int type) {
+        if (!mAutoScroller.isFinished() || type != ViewCompat.TYPE_TOUCH) {
+            return;
+        }
+        //刷新时是否禁止滑动
+        if (disableRefreshScroll && mState == HiRefreshState.STATE_REFRESH) {
+            consumed[1] = dy;
+            return;
+        }
+        int headBottom = getChildAt(0).getBottom();
+        if (dy > 0 && headBottom > 0) {
+            int offset = Math.min(dy, headBottom);
+            moveDown(-offset, true);
+            consumed[1] = offset;
+            return;
+        }
+        int footerOffset = getFooterOffset();
+        if (dy < 0 && footerOffset > 0) {
+            int offset = Math.min(-dy, footerOffset);
+            moveUp(-offset, true);
+            consumed[1] = -offset;
+        }
+    }
+
+    /**
+     * 子View滑动后：列表已经到顶，未消费的向下滑动距离用于下拉头部；列表接近底部时触发加载更多
+     */
+    @Override
+    public void onNestedScroll(@NonNull View target, int dxConsumed, int dyConsumed, int dxUnconsumed,
+                               int dyUnconsumed, int type, @NonNull int[] consumed) {
+        if (dyConsumed > 0) {
+            checkAutoLoadMore(target);
+        }
+        if (dyUnconsumed > 0) {
+            onNestedPullUp(target, dyUnconsumed, type, consumed);
+            return;
+        }
+        if (dyUnconsumed == 0 || !canPullDown() || !mAutoScroller.isFinished()
+                || mState == HiRefreshState.STATE_OVER_RELEASE) {
+            return;
+        }
+        View head = getChildAt(0);
+        if (type == ViewCompat.TYPE_TOUCH) {
+            if (mState != HiRefreshState.STATE_REFRESH || head.getBottom() < mHiOverView.mPullRefreshHeight) {
+                //根据阻尼，计算出下拉的距离
+                //下拉开始，开启帧监控
+                mFrameMonitor.start();
+                moveDown(dampPullDown(-dyUnconsumed), true);
+            }
+            consumed[1] += dyUnconsumed;
+        } else if (mState != HiRefreshState.STATE_REFRESH && head.getBottom() == 0) {
+            //fling到顶：剩余的速度交给头部，头部带着惯性继续下拉，速度耗尽后回弹，不会触发刷新
+            //这里不消费余量，子View到达边界后会自行结束fling
+            flingHead(takeFlingVelocity());
+        }
+    }
+
+    /**
+     * 取出子View当前fling剩余的速度
+     *
+     * @return 剩余速度（px/s），fling已结束时为0
+     */
+    private int takeFlingVelocity() {
+        if (!mFlingTracker.computeScrollOffset()) {
+            return 0;
+        }
+        int velocity = (int) mFlingTracker.getCurrVelocity();
+        mFlingTracker.forceFinished(true);
+        return velocity;
+    }
+
+    /**
+     * 按速度继续下拉头部：fling每一帧的距离与手指下拉一样经过{@link #dampPullDown(float)}换算，结束后回弹
+     */
+    private void flingHead(int velocity) {
+        if (velocity <= 0) {
+            return;
+        }
+        mFrameMonitor.start();
+        mPendingOffset = 0;
+        mAutoScroller.fling(velocity, new Runnable() {
+            @Override
+            public void run() {
+                mAutoScroller.recover(getChildAt(0).getBottom(), false);
+            }
+        });
+    }
+
+    /**
+     * 列表已经到底，未消费的向上滑动距离用于上拉露出底部视图
+     */
+    private void onNestedPullUp(View target, int dyUnconsumed, int type, int[] consumed) {
+        //到底后的滑动同样需要检查，避免滚动到底时恰好没有消费距离而错过；内容不足一屏时不会自动触发，由上拉底部视图加载
+        checkAutoLoadMore(target);
+        if (mLoadMoreOverView == null || mLoadMoreListener == null || !mLoadMoreListener.enableLoadMore()
+                || type != ViewCompat.TYPE_TOUCH || !mAutoScroller.isFinished()
+                || mLoadMoreState == HiRefreshState.STATE_OVER_RELEASE || getChildAt(0).getBottom() > 0) {
+            return;
+        }
+        int footerOffset = getFooterOffset();
+        int footerHeight = mLoadMoreOverView.mPullRefreshHeight;
+        if (mLoadMoreState != HiRefreshState.STATE_REFRESH || footerOffset < footerHeight) {
+            //根据阻尼，计算出上拉的距离
+            mFrameMonitor.start();
+            moveUp(consumePendingOffset(dyUnconsumed / mPhysics.dampAt(footerOffset)), true);
+        }
+        consumed[1] += dyUnconsumed;
+    }
+
+    @Override
+    public void onNestedScroll(@NonNull View target, int dxConsumed, int dyConsumed, int dxUnconsumed,
+                               int dyUnconsumed, int type) {
+        mNestedScrollConsumed[1] = 0;
+        onNestedScroll(target, dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, type, mNestedScrollConsumed);
+    }
+
+    @Override
+    public boolean onStartNestedScroll(@NonNull View child, @NonNull View target, int axes) {
+        return onStartNestedScroll(child, target, axes, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onNestedScrollAccepted(@NonNull View child, @NonNull View target, int axes) {
+        onNestedScrollAccepted(child, target, axes, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onStopNestedScroll(@NonNull View target) {
+        onStopNestedScroll(target, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onNestedPreScroll(@NonNull View target, int dx, int dy, @NonNull int[] consumed) {
+        onNestedPreScroll(target, dx, dy, consumed, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onNestedScroll(@NonNull View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed) {
+        onNestedScroll(target, dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public boolean onNestedPreFling(@NonNull View target, float velocityX, float velocityY) {
+        if (velocityY < 0) {
+            //向顶部fling，记录初速度，到顶时据此推算剩余速度
+            mFlingTracker.fling(0, 0, 0, (int) velocityY, 0, 0, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        } else {
+            mFlingTracker.forceFinished(true);
+        }
+        return false;
+    }
+
+    @Override
+    public boolean onNestedFling(@NonNull View target, float velocityX, float velocityY, boolean consumed) {
+        return false;
+    }
+
+    @Override
+    public int getNestedScrollAxes() {
+        return mParentHelper.getNestedScrollAxes();
+    }
+
+    /**
+     * 获取可滚动的child，只在首次或视图层级变化后才重新查找
+     */
+    private View getScrollableChild() {
+        if (mScrollableChild == null || !isInContent(mScrollableChild)) {
+            mScrollableChild = HiScrollUtil.findScrollableChild(this);
+        }
+        return mScrollableChild;
+    }
+
+    /**
+     * 缓存的child仍然attach，且沿父View能找到当前的内容View（getChildAt(1)），
+     * 内容View内部替换了子View时该检查会失败，从而重新查找；不需要在应用的View上注册监听
+     */
+    private boolean isInContent(View view) {
+        View content = getChildAt(1);
+        if (content == null || !ViewCompat.isAttachedToWindow(view)) {
+            return false;
+        }
+        View current = view;
+        while (current != content) {
+            ViewParent parent = current.getParent();
+            if (!(parent instanceof View) || parent == this) {
+                return false;
+            }
+            current = (View) parent;
+        }
+        return true;
+    }
+
+    @Override
+    public void onViewAdded(View child) {
+        super.onViewAdded(child);
+        mScrollableChild = null;
+    }
+
+    @Override
+    public void onViewRemoved(View child) {
+        super.onViewRemoved(child);
+        mScrollableChild = null;
+    }
+
+    /**
+     * 底部视图被拉出的距离，即child向上偏移的距离
+     */
+    private int getFooterOffset() {
+        View child = getChildAt(1);
+        if (mLoadMoreOverView == null || child == null) {
+            return 0;
+        }
+        return Math.max(0, -child.getTop());
+    }
+
+    private boolean canLoadMore() {
+        return mLoadMoreListener != null && mHasMore && mState != HiRefreshState.STATE_REFRESH
+                && mLoadMoreListener.enableLoadMore();
+    }
+
+    /**
+     * 列表接近底部时自动加载更多，加载中或松手等待加载时的重复触发会被合并
+     */
+    private void checkAutoLoadMore(View target) {
+        if (!mAutoLoadMore || mLoadMoreState == HiRefreshState.STATE_REFRESH
+                || mLoadMoreState == HiRefreshState.STATE_OVER_RELEASE || !canLoadMore()) {
+            return;
+        }
+        if (HiScrollUtil.reachBottom(target, mLoadMorePrefetchItems, mLoadMorePrefetchDistance)) {
+            loadMore();
+        }
+    }
+
+    /**
+     * 将阻尼换算后的距离取整，余下的小数部分留到下一次
+     */
+    /**
+     * 下拉头部的阻尼换算，手指下拉和fling交接共用，同样的滑动距离头部移动同样的距离
+     *
+     * @param distance 手指或fling移动的距离，正数表示下拉
+     * @return 头部应移动的距离
+     */
+    private int dampPullDown(float distance) {
+        return consumePendingOffset(distance / mPullPhysics.dampAt(getChildAt(0).getBottom()));
+    }
+
+    private int consumePendingOffset(float offset) {
+        mPendingOffset += offset;
+        int result = (int) mPendingOffset;
+        mPendingOffset -= result;
+        return result;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        resetOffsetOnDetach();
+        mFrameMonitor.cancel();
+    }
+
+    /**
+     * 从窗口移除时直接停止回弹，不能走到终点，否则会在移除过程中触发刷新或加载更多的回调
+     * 正在刷新、加载时停在刷新、加载的位置，否则回到原位并重置状态
+     */
+    private void resetOffsetOnDetach() {
+        mAutoScroller.cancel();
+        View head = getChildAt(0);
+        if (head == null || getChildAt(1) == null) {
+            return;
+        }
+        int footerOffset = getFooterOffset();
+        if (footerOffset > 0) {
+            int footerTarget = mLoadMoreState == HiRefreshState.STATE_REFRESH ? mLoadMoreOverView.mPullRefreshHeight : 0;
+            offsetContent(footerOffset - footerTarget);
+        } else {
+            int headTarget = mState == HiRefreshState.STATE_REFRESH && mHiOverView != null
+                    ? mHiOverView.mPullRefreshHeight : 0;
+            offsetContent(headTarget - head.getBottom());
+        }
+        if (mState != HiRefreshState.STATE_REFRESH) {
+            changeState(HiRefreshState.STATE_INIT);
+            if (mHiOverView != null) {
+                mHiOverView.setState(HiRefreshState.STATE_INIT);
+            }
+        }
+        if (mLoadMoreState != HiRefreshState.STATE_REFRESH) {
+            mLoadMoreState = HiRefreshState.STATE_INIT;
+            if (mLoadMoreOverView != null) {
+                mLoadMoreOverView.setState(HiRefreshState.STATE_INIT);
+            }
+        }
+    }
+
     @Override
     protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
         //定义head和child的排列位置
         View head = getChildAt(0);
         View child = getChildAt(1);
         if (head != null && child != null) {
-            HiLog.i(TAG, "onLayout head-height:" + head.getMeasuredHeight());
             int childTop = child.getTop();
             if (mState == HiRefreshState.STATE_REFRESH) {
                 head.layout(0, mHiOverView.mPullRefreshHeight - head.getMeasuredHeight(), right, mHiOverView.mPullRefreshHeight);
@@ -190,24 +840,71 @@ public class HiRefreshLayout extends FrameLayout implements HiRefresh {
                 head.layout(0, childTop - head.getMeasuredHeight(), right, childTop);
                 child.layout(0, childTop, right, childTop + child.getMeasuredHeight());
             }
+            if (mLoadMoreOverView != null) {
+                //底部视图紧贴在child下方，跟随child移动
+                int footerTop = child.getBottom();
+                mLoadMoreOverView.layout(0, footerTop, right, footerTop + mLoadMoreOverView.getMeasuredHeight());
+            }
+            if (mSecondFloorView != null) {
+                //二楼与head一样位于child上方
+                mSecondFloorView.layout(0, child.getTop() - mSecondFloorView.getMeasuredHeight(), right, child.getTop());
+            }
 
             View other;
             //让HiRefreshLayout节点下两个以上的child能够不跟随手势移动以实现一些特殊效果，如悬浮的效果
             for (int i = 2; i < getChildCount(); ++i) {
                 other = getChildAt(i);
+                if (other == mLoadMoreOverView || other == mSecondFloorView) {
+                    continue;
+                }
                 other.layout(0, top, right, bottom);
             }
-            HiLog.i(TAG, "onLayout head-bottom:" + head.getBottom());
+            if (HiRefreshTracer.isEnabled()) {
+                HiRefreshTracer.trace(HiRefreshTracer.EVENT_LAYOUT, mState, head.getBottom(), head.getMeasuredHeight());
+            }
+        }
+    }
+
+    /**
+     * 松手：通知当前阶段，超过二楼高度时打开二楼，否则回弹或触发刷新
+     */
+    private void release(int dis) {
+        if (mCurrentStage >= 0) {
+            mStageListeners.get(mCurrentStage).onStageRelease();
         }
+        if (mSecondFloorView != null && dis >= mSecondFloorThreshold) {
+            openSecondFloor();
+            return;
+        }
+        recover(dis);
     }
 
     //让视图滚动回指定位置
     private void recover(int dis) {//dis =200  200-100
         if (mHiRefreshListener != null && dis > mHiOverView.mPullRefreshHeight) {
-            mAutoScroller.recover(dis - mHiOverView.mPullRefreshHeight);
-            mState = HiRefreshState.STATE_OVER_RELEASE;
+            mAutoScroller.recover(dis - mHiOverView.mPullRefreshHeight, false);
+            changeState(HiRefreshState.STATE_OVER_RELEASE);
         } else {
-            mAutoScroller.recover(dis);
+            mAutoScroller.recover(dis, false);
+        }
+        if (HiRefreshTracer.isEnabled()) {
+            HiRefreshTracer.trace(HiRefreshTracer.EVENT_RECOVER, mState, dis, mHiOverView.mPullRefreshHeight);
+        }
+    }
+
+    //让底部视图滚动回指定位置，超出加载距离时停留在加载位置并触发加载更多
+    private void recoverFooter(int dis) {
+        int footerHeight = mLoadMoreOverView.mPullRefreshHeight;
+        if (dis > footerHeight && (mLoadMoreState == HiRefreshState.STATE_REFRESH || canLoadMore())) {
+            if (mLoadMoreState != HiRefreshState.STATE_REFRESH) {
+                mLoadMoreState = HiRefreshState.STATE_OVER_RELEASE;
+            }
+            mAutoScroller.recover(dis - footerHeight, true);
+        } else if (mLoadMoreState != HiRefreshState.STATE_REFRESH) {
+            mAutoScroller.recover(dis, true);
+        }
+        if (HiRefreshTracer.isEnabled()) {
+            HiRefreshTracer.trace(HiRefreshTracer.EVENT_RECOVER, mLoadMoreState, -dis, footerHeight);
         }
     }
 
@@ -219,22 +916,21 @@ public class HiRefreshLayout extends FrameLayout implements HiRefresh {
      * @return
      */
     private boolean moveDown(int offsetY, boolean nonAuto) {
-        HiLog.i("111", "changeState:" + nonAuto);
         View head = getChildAt(0);
         View child = getChildAt(1);
         int childTop = child.getTop() + offsetY;
 
-        HiLog.i("-----", "moveDown head-bottom:" + head.getBottom() + ",child.getTop():" + child.getTop() + ",offsetY:" + offsetY);
+        if (HiRefreshTracer.isEnabled()) {
+            HiRefreshTracer.trace(HiRefreshTracer.EVENT_MOVE, mState, head.getBottom(), offsetY);
+        }
         //异常情况的补充
         if (childTop <= 0) {
-            HiLog.i(TAG, "childTop<=0,mState" + mState);
             //遇到这种异常情况时，对OffsetY进行重置
             offsetY = -child.getTop();
-            //移动head与child的位置，到原始位置
-            head.offsetTopAndBottom(offsetY);
-            child.offsetTopAndBottom(offsetY);
+            //移动head、child与底部视图的位置，到原始位置
+            offsetContent(offsetY);
             if (mState != HiRefreshState.STATE_REFRESH) {
-                mState = HiRefreshState.STATE_INIT;
+                changeState(HiRefreshState.STATE_INIT);
             }
         } else if (mState == HiRefreshState.STATE_REFRESH && childTop > mHiOverView.mPullRefreshHeight) {
             //如果正在下拉刷新中，禁止继续下拉
@@ -244,12 +940,10 @@ public class HiRefreshLayout extends FrameLayout implements HiRefresh {
             if (mHiOverView.getState() != HiRefreshState.STATE_VISIBLE && nonAuto) {
                 mHiOverView.onVisible();
                 mHiOverView.setState(HiRefreshState.STATE_VISIBLE);
-                mState = HiRefreshState.STATE_VISIBLE;
+                changeState(HiRefreshState.STATE_VISIBLE);
             }
-            head.offsetTopAndBottom(offsetY);
-            child.offsetTopAndBottom(offsetY);
+            offsetContent(offsetY);
             if (childTop == mHiOverView.mPullRefreshHeight && mState == HiRefreshState.STATE_OVER_RELEASE) {
-                HiLog.i(TAG, "refresh，childTop：" + childTop);
                 refresh();
             }
         } else {
@@ -258,68 +952,290 @@ public class HiRefreshLayout extends FrameLayout implements HiRefresh {
                 mHiOverView.onOver();
                 mHiOverView.setState(HiRefreshState.STATE_OVER);
             }
-            head.offsetTopAndBottom(offsetY);
-            child.offsetTopAndBottom(offsetY);
+            offsetContent(offsetY);
         }
         if (mHiOverView != null) {
             //告诉HiOverView下拉刷新滚动的距离
             mHiOverView.onScroll(head.getBottom(), mHiOverView.mPullRefreshHeight);
+            if (mSecondFloorView == null && mSecondFloorLayoutId != 0
+                    && head.getBottom() >= mHiOverView.mPullRefreshHeight) {
+                //越过刷新高度，提前异步加载二楼
+                preloadSecondFloor();
+            }
         }
+        updateSecondFloorAlpha(head.getBottom());
+        dispatchPullStage(head.getBottom());
         return true;
     }
 
+    /**
+     * 根据下拉距离切换阶段，依次回调越过或退回的每个阶段
+     */
+    private void dispatchPullStage(int distance) {
+        int stage = -1;
+        for (int i = 0; i < mStageThresholds.size() && distance >= mStageThresholds.get(i); i++) {
+            stage = i;
+        }
+        while (mCurrentStage < stage) {
+            mCurrentStage++;
+            mStageListeners.get(mCurrentStage).onStageEnter();
+        }
+        while (mCurrentStage > stage) {
+            mStageListeners.get(mCurrentStage).onStageExit();
+            mCurrentStage--;
+        }
+    }
+
+    /**
+     * 二楼在刷新高度到二楼高度之间逐渐显示
+     */
+    private void updateSecondFloorAlpha(int distance) {
+        if (mSecondFloorView == null || mSecondFloorOpened || mHiOverView == null) {
+            return;
+        }
+        int start = mHiOverView.mPullRefreshHeight;
+        float alpha = (distance - start) / (float) Math.max(1, mSecondFloorThreshold - start);
+        mSecondFloorView.setAlpha(Math.min(Math.max(alpha, 0f), 1f));
+    }
+
+
+    /**
+     * 根据偏移量上拉child与底部视图
+     *
+     * @param offsetY 偏移量，正数表示继续上拉，负数表示收起
+     * @param nonAuto 是否非自动滚动触发
+     * @return
+     */
+    private boolean moveUp(int offsetY, boolean nonAuto) {
+        View child = getChildAt(1);
+        int footerHeight = mLoadMoreOverView.mPullRefreshHeight;
+        int footerOffset = -child.getTop() + offsetY;
+
+        if (HiRefreshTracer.isEnabled()) {
+            HiRefreshTracer.trace(HiRefreshTracer.EVENT_MOVE, mLoadMoreState, child.getTop(), -offsetY);
+        }
+        boolean loading = mLoadMoreState == HiRefreshState.STATE_REFRESH;
+        if (footerOffset <= 0) {
+            //收起超过原始位置时，回到原始位置
+            offsetY = child.getTop();
+            if (!loading) {
+                mLoadMoreState = HiRefreshState.STATE_INIT;
+            }
+        } else if (loading && footerOffset > footerHeight) {
+            //如果正在加载更多，禁止继续上拉
+            return false;
+        } else if (footerOffset <= footerHeight) {
+            if (!loading && mLoadMoreOverView.getState() != HiRefreshState.STATE_VISIBLE && nonAuto) {
+                mLoadMoreOverView.onVisible();
+                mLoadMoreOverView.setState(HiRefreshState.STATE_VISIBLE);
+                mLoadMoreState = HiRefreshState.STATE_VISIBLE;
+            }
+        } else if (mLoadMoreOverView.getState() != HiRefreshState.STATE_OVER && nonAuto) {
+            //告诉底部视图，已超出加载位置
+            mLoadMoreOverView.onOver();
+            mLoadMoreOverView.setState(HiRefreshState.STATE_OVER);
+        }
+        offsetContent(-offsetY);
+        if (-child.getTop() == footerHeight && mLoadMoreState == HiRefreshState.STATE_OVER_RELEASE) {
+            loadMore();
+        }
+        mLoadMoreOverView.onScroll(-child.getTop(), footerHeight);
+        return true;
+    }
+
+    /**
+     * 同步移动head、child与底部视图
+     */
+    private void offsetContent(int offsetY) {
+        getChildAt(0).offsetTopAndBottom(offsetY);
+        getChildAt(1).offsetTopAndBottom(offsetY);
+        if (mLoadMoreOverView != null) {
+            mLoadMoreOverView.offsetTopAndBottom(offsetY);
+        }
+        if (mSecondFloorView != null) {
+            mSecondFloorView.offsetTopAndBottom(offsetY);
+        }
+    }
+
+    /**
+     * 切换状态，开启追踪时记录状态变化
+     */
+    private void changeState(HiRefreshState state) {
+        if (HiRefreshTracer.isEnabled() && mState != state) {
+            HiRefreshTracer.trace(HiRefreshTracer.EVENT_STATE, state, mState == null ? -1 : mState.ordinal(), 0);
+        }
+        mState = state;
+    }
 
     /**
      * 刷新
      */
     private void refresh() {
         if (mHiRefreshListener != null) {
-            mState = HiRefreshState.STATE_REFRESH;
+            changeState(HiRefreshState.STATE_REFRESH);
+            if (HiRefreshTracer.isEnabled()) {
+                HiRefreshTracer.trace(HiRefreshTracer.EVENT_REFRESH, mState, getChildAt(0).getBottom(), 0);
+            }
             mHiOverView.onRefresh();
             mHiOverView.setState(HiRefreshState.STATE_REFRESH);
             mHiRefreshListener.onRefresh();
         }
     }
 
+    /**
+     * 加载更多
+     */
+    private void loadMore() {
+        if (mLoadMoreListener == null || mLoadMoreState == HiRefreshState.STATE_REFRESH) {
+            return;
+        }
+        mLoadMoreState = HiRefreshState.STATE_REFRESH;
+        if (HiRefreshTracer.isEnabled()) {
+            HiRefreshTracer.trace(HiRefreshTracer.EVENT_LOAD_MORE, mLoadMoreState, getFooterOffset(), 0);
+        }
+        if (mLoadMoreOverView != null) {
+            mLoadMoreOverView.onRefresh();
+            mLoadMoreOverView.setState(HiRefreshState.STATE_REFRESH);
+        }
+        mLoadMoreListener.onLoadMore();
+    }
+
 
     /**
      * 借助Scroller实现视图的自动滚动
+     * 通过Choreographer的帧回调驱动，每一帧移动一次，与屏幕刷新（60/90/120Hz）保持同步
      * https://juejin.im/post/5c7f4f0351882562ed516ab6
      */
-    private class AutoScroller implements Runnable {
+    private class AutoScroller implements Choreographer.FrameCallback {
+        private final Choreographer mChoreographer = Choreographer.getInstance();
         private Scroller mScroller;
         private int mLastY;
         private boolean mIsFinished;
+        //是否在回弹底部视图
+        private boolean mFooter;
+        //是否为fling交接的下拉，每一帧的距离需要经过阻尼换算
+        private boolean mDampedPull;
+        //滚动结束后执行的操作
+        private Runnable mEndAction;
 
         AutoScroller() {
             mScroller = new Scroller(getContext(), new LinearInterpolator());
             mIsFinished = true;
         }
 
+        void setInterpolator(Interpolator interpolator) {
+            //进行中的回弹直接到达终点，避免头部停在半路、状态停留在STATE_OVER_RELEASE
+            finish();
+            mScroller = new Scroller(getContext(), interpolator != null ? interpolator : new LinearInterpolator());
+        }
+
         @Override
-        public void run() {
+        public void doFrame(long frameTimeNanos) {
             if (mScroller.computeScrollOffset()) {//还未滚动完成
-                moveDown(mLastY - mScroller.getCurrY(), false);
+                move(mLastY - mScroller.getCurrY());
                 mLastY = mScroller.getCurrY();
-                post(this);
+                mChoreographer.postFrameCallback(this);
             } else {
-                removeCallbacks(this);
                 mIsFinished = true;
+                //回弹结束，本次下拉结束
+                mFrameMonitor.stop();
+                runEndAction();
+            }
+        }
+
+        private void runEndAction() {
+            Runnable endAction = mEndAction;
+            mEndAction = null;
+            if (endAction != null) {
+                endAction.run();
+            }
+        }
+
+        private void move(int offsetY) {
+            if (mFooter) {
+                moveUp(offsetY, false);
+            } else if (mDampedPull) {
+                moveDown(dampPullDown(offsetY), false);
+            } else {
+                moveDown(offsetY, false);
+            }
+        }
+
+        void recover(int dis, boolean footer) {
+            if (dis <= 0) {
+                return;
             }
+            recover(dis, footer, null);
         }
 
         /*
          * 触发滚动
+         *
+         * @param dis       滚动距离，正数向上回弹，负数向下展开
+         * @param footer    是否回弹底部视图
+         * @param endAction 滚动结束后执行
          */
-        void recover(int dis) {
-            if (dis <= 0) {
+        void recover(int dis, boolean footer, Runnable endAction) {
+            if (dis == 0) {
+                mEndAction = endAction;
+                runEndAction();
                 return;
             }
-            removeCallbacks(this);
+            if (mFooter != footer) {
+                //切换回弹对象前，先让上一次回弹直接到达终点
+                finish();
+            }
+            mFooter = footer;
+            mDampedPull = false;
+            mEndAction = endAction;
+            mChoreographer.removeFrameCallback(this);
+            mLastY = 0;
+            mIsFinished = false;
+            mScroller.startScroll(0, 0, 0, dis, mPhysics.getRecoverDuration());
+            mChoreographer.postFrameCallback(this);
+        }
+
+        /**
+         * 以指定的初速度向下展开头部，按fling的减速曲线逐渐停下，每一帧的距离经过阻尼换算
+         *
+         * @param velocity  初速度（px/s）
+         * @param endAction 滚动结束后执行
+         */
+        void fling(int velocity, Runnable endAction) {
+            finish();
+            mFooter = false;
+            mDampedPull = true;
+            mEndAction = endAction;
             mLastY = 0;
             mIsFinished = false;
-            mScroller.startScroll(0, 0, 0, dis, 300);
-            post(this);
+            //滚动距离为正表示收起，向下展开对应负方向的滚动；阻尼在到达最大下拉距离时为无穷大，不需要另外限制距离
+            mScroller.fling(0, 0, 0, -velocity, 0, 0, Integer.MIN_VALUE, 0);
+            mChoreographer.postFrameCallback(this);
+        }
+
+        /**
+         * 立即结束滚动，直接移动到终点位置
+         */
+        void finish() {
+            if (mIsFinished) {
+                return;
+            }
+            mChoreographer.removeFrameCallback(this);
+            mScroller.abortAnimation();
+            move(mLastY - mScroller.getFinalY());
+            mLastY = mScroller.getFinalY();
+            mIsFinished = true;
+            runEndAction();
+        }
+
+        /**
+         * 停止滚动，停在当前位置，不执行结束后的操作
+         */
+        void cancel() {
+            mChoreographer.removeFrameCallback(this);
+            mScroller.forceFinished(true);
+            mIsFinished = true;
+            mEndAction = null;
         }
 
         boolean isFinished() {
@@ -0,0 +1,165 @@
+package org.devio.hi.ui.refresh;
+
+import android.content.res.Resources;
+
+import androidx.annotation.NonNull;
+
+import org.devio.hi.library.util.HiDisplayUtil;
+
+/**
+ * 下拉刷新的物理参数：触发刷新的高度、阻尼曲线、最大下拉距离、回弹时长
+ * 1. 不可变对象，所有距离在创建时换算为像素，可以在多个HiRefreshLayout之间共享
+ * 2. 阻尼随下拉距离连续变化：未达到刷新高度时从minDamp平滑过渡到maxDamp，超过后逐渐增大，到达最大下拉距离时无法继续下拉；
+ * 每个像素对应的阻尼预先计算成表，滑动时只需查表
+ */
+public final class HiRefreshPhysics {
+    public static final int DEFAULT_TRIGGER_HEIGHT_DP = 66;
+    public static final int DEFAULT_MAX_OVERSCROLL_DP = 200;
+    public static final float DEFAULT_MIN_DAMP = 1.6f;
+    public static final float DEFAULT_MAX_DAMP = 2.2f;
+    public static final int DEFAULT_RECOVER_DURATION = 300;
+
+    private static HiRefreshPhysics sDefault;
+    private static float sDefaultDensity;
+
+    private final int mTriggerHeight;
+    private final int mMaxOverscroll;
+    private final float mMinDamp;
+    private final float mMaxDamp;
+    private final int mRecoverDuration;
+    //下标为下拉距离（px），值为该距离下的阻尼
+    private final float[] mDampTable;
+
+    private HiRefreshPhysics(Builder builder) {
+        mTriggerHeight = Math.max(1, builder.mTriggerHeight);
+        mMaxOverscroll = Math.max(mTriggerHeight + 1, builder.mMaxOverscroll);
+        mMinDamp = builder.mMinDamp;
+        mMaxDamp = Math.max(builder.mMinDamp, builder.mMaxDamp);
+        mRecoverDuration = builder.mRecoverDuration;
+        mDampTable = new float[mMaxOverscroll];
+        for (int distance = 0; distance < mMaxOverscroll; distance++) {
+            mDampTable[distance] = computeDamp(distance);
+        }
+    }
+
+    private float computeDamp(int distance) {
+        if (distance <= mTriggerHeight) {
+            float fraction = distance / (float) mTriggerHeight;
+            return mMinDamp + (mMaxDamp - mMinDamp) * fraction * fraction;
+        }
+        //超过刷新高度后，剩余距离越小阻尼越大
+        float remaining = 1f - (distance - mTriggerHeight) / (float) (mMaxOverscroll - mTriggerHeight);
+        return mMaxDamp / remaining;
+    }
+
+    /**
+     * 获取按当前屏幕密度换算的默认参数，密度不变时返回同一个实例
+     */
+    @NonNull
+    public static HiRefreshPhysics getDefault(@NonNull Resources resources) {
+        HiRefreshPhysics physics = sDefault;
+        float density = resources.getDisplayMetrics().density;
+        if (physics == null || sDefaultDensity != density) {
+            physics = new Builder(resources).build();
+            sDefault = physics;
+            sDefaultDensity = density;
+        }
+        return physics;
+    }
+
+    /**
+     * @return 触发刷新需要的下拉高度（px）
+     */
+    public int getTriggerHeight() {
+        return mTriggerHeight;
+    }
+
+    /**
+     * @return 最大下拉距离（px）
+     */
+    public int getMaxOverscroll() {
+        return mMaxOverscroll;
+    }
+
+    public float getMinDamp() {
+        return mMinDamp;
+    }
+
+    public float getMaxDamp() {
+        return mMaxDamp;
+    }
+
+    /**
+     * @return 松手回弹的时长（ms）
+     */
+    public int getRecoverDuration() {
+        return mRecoverDuration;
+    }
+
+    /**
+     * 获取指定下拉距离下的阻尼，手指移动的距离除以阻尼即为下拉的距离
+     *
+     * @param distance 当前已下拉的距离（px）
+     * @return 阻尼，到达最大下拉距离后为正无穷
+     */
+    public float dampAt(int distance) {
+        if (distance >= mMaxOverscroll) {
+            return Float.POSITIVE_INFINITY;
+        }
+        return mDampTable[Math.max(0, distance)];
+    }
+
+    public Builder newBuilder() {
+        return new Builder(this);
+    }
+
+    public static final class Builder {
+        private int mTriggerHeight;
+        private int mMaxOverscroll;
+        private float mMinDamp = DEFAULT_MIN_DAMP;
+        private float mMaxDamp = DEFAULT_MAX_DAMP;
+        private int mRecoverDuration = DEFAULT_RECOVER_DURATION;
+
+        public Builder(@NonNull Resources resources) {
+            mTriggerHeight = HiDisplayUtil.dp2px(DEFAULT_TRIGGER_HEIGHT_DP, resources);
+            mMaxOverscroll = HiDisplayUtil.dp2px(DEFAULT_MAX_OVERSCROLL_DP, resources);
+        }
+
+        private Builder(HiRefreshPhysics physics) {
+            mTriggerHeight = physics.mTriggerHeight;
+            mMaxOverscroll = physics.mMaxOverscroll;
+            mMinDamp = physics.mMinDamp;
+            mMaxDamp = physics.mMaxDamp;
+            mRecoverDuration = physics.mRecoverDuration;
+        }
+
+        public Builder setTriggerHeight(int triggerHeight) {
+            mTriggerHeight = triggerHeight;
+            return this;
+        }
+
+        public Builder setMaxOverscroll(int maxOverscroll) {
+            mMaxOverscroll = maxOverscroll;
+            return this;
+        }
+
+        /**
+         * @param minDamp 开始下拉时的阻尼
+         * @param maxDamp 到达刷新高度时的阻尼
+         */
+        public Builder setDamp(float minDamp, float maxDamp) {
+            mMinDamp = minDamp;
+            mMaxDamp = maxDamp;
+            return this;
+        }
+
+        public Builder setRecoverDuration(int recoverDuration) {
+            mRecoverDuration = recoverDuration;
+            return this;
+        }
+
+        public HiRefreshPhysics build() {
+            return new HiRefreshPhysics(this);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.devio.hi.ui.refresh;
+
+import android.os.SystemClock;
+
+import org.devio.hi.ui.refresh.HiOverView.HiRefreshState;
+
+/**
+ * 下拉刷新的手势追踪器
+ * 1. 默认关闭，调用方需先判断{@link #isEnabled()}再调用trace，关闭时不会拼接字符串，也不会创建可变参数数组
+ * 2. 开启后将事件以原始类型写入固定大小的环形缓冲区，出现卡顿反馈时可通过{@link #dump()}导出最近的手势轨迹
+ */
+public final class HiRefreshTracer {
+    public static final int EVENT_TOUCH = 0;
+    public static final int EVENT_MOVE = 1;
+    public static final int EVENT_LAYOUT = 2;
+    public static final int EVENT_STATE = 3;
+    public static final int EVENT_RECOVER = 4;
+    public static final int EVENT_REFRESH = 5;
+    public static final int EVENT_FINISH = 6;
+    public static final int EVENT_LOAD_MORE = 7;
+
+    private static final String[] EVENT_NAMES = {"touch", "move", "layout", "state", "recover", "refresh", "finish", "loadMore"};
+    private static final int CAPACITY = 256;
+
+    private static boolean sEnabled;
+
+    private static final long[] sTimes = new long[CAPACITY];
+    private static final int[] sEvents = new int[CAPACITY];
+    private static final int[] sStates = new int[CAPACITY];
+    private static final int[] sArgs1 = new int[CAPACITY];
+    private static final int[] sArgs2 = new int[CAPACITY];
+    //下一个写入位置，以及已写入的事件总数
+    private static int sNext;
+    private static int sCount;
+
+    private HiRefreshTracer() {
+    }
+
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * 记录一条事件，只能在主线程调用
+     *
+     * @param event 事件类型，EVENT_*
+     * @param state 事件发生时HiRefreshLayout的状态
+     * @param arg1  事件参数，如head的bottom
+     * @param arg2  事件参数，如本次的偏移量
+     */
+    public static void trace(int event, HiRefreshState state, int arg1, int arg2) {
+        if (!sEnabled) {
+            return;
+        }
+        int index = sNext;
+        sTimes[index] = SystemClock.uptimeMillis();
+        sEvents[index] = event;
+        sStates[index] = state == null ? -1 : state.ordinal();
+        sArgs1[index] = arg1;
+        sArgs2[index] = arg2;
+        sNext = (index + 1) % CAPACITY;
+        sCount++;
+    }
+
+    /**
+     * 按时间顺序导出缓冲区中的事件，每行格式：时间戳 事件 状态 参数1 参数2
+     */
+    public static String dump() {
+        int size = Math.min(sCount, CAPACITY);
+        int start = (sNext - size + CAPACITY) % CAPACITY;
+        HiRefreshState[] states = HiRefreshState.values();
+        StringBuilder builder = new StringBuilder(size * 48);
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % CAPACITY;
+            int state = sStates[index];
+            builder.append(sTimes[index]).append(' ')
+                    .append(EVENT_NAMES[sEvents[index]]).append(' ')
+                    .append(state < 0 ? "-" : states[state].name()).append(' ')
+                    .append(sArgs1[index]).append(' ')
+                    .append(sArgs2[index]).append('\n');
+        }
+        return builder.toString();
+    }
+
+    public static void clear() {
+        sNext = 0;
+        sCount = 0;
+    }
+}
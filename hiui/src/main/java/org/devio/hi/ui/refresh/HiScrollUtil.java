@@ -1,16 +1,66 @@
 package org.devio.hi.ui.refresh;
 
-import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.AdapterView;
+import android.webkit.WebView;
+import android.widget.AbsListView;
+import android.widget.ScrollView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ScrollingView;
+import androidx.core.widget.ListViewCompat;
+import androidx.core.widget.NestedScrollView;
 import androidx.recyclerview.widget.RecyclerView;
 
-import org.devio.hi.library.log.HiLog;
+import java.util.ArrayList;
+import java.util.List;
 
 public class HiScrollUtil {
+
+    /**
+     * 自定义的滚动判断，用于内置的canScrollVertically(-1)无法正确判断的View
+     */
+    public interface ScrollChecker {
+        /**
+         * @return true 发生了滚动（不在顶部）
+         */
+        boolean childScrolled(@NonNull View child);
+    }
+
+    private static final List<Class<? extends View>> sScrollableTypes = new ArrayList<>();
+    private static final List<ScrollChecker> sScrollCheckers = new ArrayList<>();
+
+    static {
+        registerScrollableType(RecyclerView.class, null);
+        registerScrollableType(AbsListView.class, new ScrollChecker() {
+            @Override
+            public boolean childScrolled(@NonNull View child) {
+                return ListViewCompat.canScrollList((AbsListView) child, -1);
+            }
+        });
+        registerScrollableType(ScrollView.class, null);
+        registerScrollableType(NestedScrollView.class, null);
+        registerScrollableType(WebView.class, null);
+    }
+
+    /**
+     * 注册可滚动的View类型，查找可滚动的child时会识别该类型
+     *
+     * @param type    可滚动的View类型，子类同样生效
+     * @param checker 判断是否发生了滚动，传null时使用canScrollVertically(-1)判断
+     */
+    public static void registerScrollableType(@NonNull Class<? extends View> type, @Nullable ScrollChecker checker) {
+        int index = sScrollableTypes.indexOf(type);
+        if (index >= 0) {
+            sScrollCheckers.set(index, checker);
+            return;
+        }
+        //后注册的类型优先匹配，便于对内置类型的子类做定制
+        sScrollableTypes.add(0, type);
+        sScrollCheckers.add(0, checker);
+    }
+
     /**
      * 判断child是否发生了滚动
      *
@@ -18,44 +68,88 @@ public class HiScrollUtil {
      * @return true 发生了滚动
      */
     public static boolean childScrolled(@NonNull View child) {
-        if (child instanceof AdapterView) {
-            AdapterView adapterView = (AdapterView) child;
-            if (adapterView.getFirstVisiblePosition() != 0
-                    || adapterView.getFirstVisiblePosition() == 0 && adapterView.getChildAt(0) != null
-                    && adapterView.getChildAt(0).getTop() < 0) {
+        for (int i = 0; i < sScrollableTypes.size(); i++) {
+            if (sScrollableTypes.get(i).isInstance(child)) {
+                ScrollChecker checker = sScrollCheckers.get(i);
+                return checker != null ? checker.childScrolled(child) : child.canScrollVertically(-1);
+            }
+        }
+        return child.canScrollVertically(-1) || child.getScrollY() > 0;
+    }
+
+    /**
+     * 判断child是否已经滚动到底部，或者距离底部已经不足预加载的距离
+     * 只识别已注册的可滚动类型；内容不足一屏、无法滚动的child始终返回false，由上拉底部视图手动触发加载
+     *
+     * @param child            可滚动的child
+     * @param prefetchItems    距离底部剩余的条目数，适用于RecyclerView、AbsListView
+     * @param prefetchDistance 距离底部剩余的像素，适用于实现了ScrollingView的View
+     * @return true 需要加载更多
+     */
+    public static boolean reachBottom(@NonNull View child, int prefetchItems, int prefetchDistance) {
+        if (!isScrollableType(child)) {
+            return false;
+        }
+        if (!child.canScrollVertically(1)) {
+            //无法继续向下滚动：滚动过才是到底，否则说明内容不足一屏
+            return childScrolled(child);
+        }
+        if (prefetchItems > 0) {
+            int remaining = -1;
+            if (child instanceof RecyclerView) {
+                RecyclerView.LayoutManager layoutManager = ((RecyclerView) child).getLayoutManager();
+                if (layoutManager != null && layoutManager.getChildCount() > 0) {
+                    View last = layoutManager.getChildAt(layoutManager.getChildCount() - 1);
+                    remaining = layoutManager.getItemCount() - 1 - layoutManager.getPosition(last);
+                }
+            } else if (child instanceof AbsListView) {
+                AbsListView listView = (AbsListView) child;
+                remaining = listView.getCount() - 1 - listView.getLastVisiblePosition();
+            }
+            if (remaining >= 0 && remaining <= prefetchItems) {
                 return true;
             }
-        } else if (child.getScrollY() > 0) {
-            return true;
         }
-        if (child instanceof RecyclerView) {
-            RecyclerView recyclerView = (RecyclerView) child;
-            View view = recyclerView.getChildAt(0);
-            int firstPosition = recyclerView.getChildAdapterPosition(view);
-            HiLog.d("----:top", view.getTop() + "");
-            return firstPosition != 0 || view.getTop() != 0;
+        if (prefetchDistance > 0 && child instanceof ScrollingView) {
+            ScrollingView scrollingView = (ScrollingView) child;
+            int remaining = scrollingView.computeVerticalScrollRange() - scrollingView.computeVerticalScrollOffset()
+                    - scrollingView.computeVerticalScrollExtent();
+            return remaining <= prefetchDistance;
         }
         return false;
     }
 
     /**
      * 从ViewGroup里，查找可以滚动的子View（Child）
+     * 该方法会遍历类型注册表，调用方应缓存结果，在视图层级变化时再重新查找
      *
      * @return 可以滚动的child
      */
     public static View findScrollableChild(@NonNull ViewGroup viewGroup) {
         View child = viewGroup.getChildAt(1);
-        //如果直接是RecyclerView或者AdapterView的实例，则直接返回
-        if (child instanceof RecyclerView || child instanceof AdapterView) {
+        //如果直接是可滚动类型的实例，则直接返回
+        if (isScrollableType(child)) {
             return child;
         }
         //最多往下再多找一层
         if (child instanceof ViewGroup) {
             View tempChild = ((ViewGroup) child).getChildAt(0);
-            if (tempChild instanceof RecyclerView || tempChild instanceof AdapterView) {
+            if (isScrollableType(tempChild)) {
                 child = tempChild;
             }
         }
         return child;
     }
+
+    private static boolean isScrollableType(@Nullable View view) {
+        if (view == null) {
+            return false;
+        }
+        for (int i = 0; i < sScrollableTypes.size(); i++) {
+            if (sScrollableTypes.get(i).isInstance(view)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
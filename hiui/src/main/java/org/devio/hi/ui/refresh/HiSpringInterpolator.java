@@ -0,0 +1,48 @@
+package org.devio.hi.ui.refresh;
+
+import android.view.animation.Interpolator;
+
+/**
+ * 基于阻尼弹簧模型的插值器，可用于下拉刷新的回弹动画
+ * 弹簧刚度根据阻尼比自动计算，保证在动画时长结束时已基本静止
+ */
+public class HiSpringInterpolator implements Interpolator {
+    /**
+     * 动画结束时允许的剩余振幅，ln(1000)对应千分之一
+     */
+    private static final float SETTLE_FACTOR = (float) Math.log(1000);
+
+    private final float mDampingRatio;
+    private final float mNaturalFrequency;
+    private final float mDampedFrequency;
+
+    /**
+     * @param dampingRatio 阻尼比，小于1时会有回弹，大于等于1时无回弹
+     */
+    public HiSpringInterpolator(float dampingRatio) {
+        mDampingRatio = Math.max(0.05f, dampingRatio);
+        if (mDampingRatio < 1f) {
+            mNaturalFrequency = SETTLE_FACTOR / mDampingRatio;
+            mDampedFrequency = (float) (mNaturalFrequency * Math.sqrt(1 - mDampingRatio * mDampingRatio));
+        } else {
+            //临界阻尼：e^(-ωt)(1+ωt)在t=1时衰减到千分之一左右
+            mNaturalFrequency = SETTLE_FACTOR * 1.33f;
+            mDampedFrequency = 0;
+        }
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        if (input >= 1f) {
+            return 1f;
+        }
+        float omega = mNaturalFrequency;
+        if (mDampingRatio < 1f) {
+            double envelope = Math.exp(-mDampingRatio * omega * input);
+            double phase = mDampedFrequency * input;
+            return (float) (1 - envelope * (Math.cos(phase)
+                    + mDampingRatio * omega / mDampedFrequency * Math.sin(phase)));
+        }
+        return (float) (1 - Math.exp(-omega * input) * (1 + omega * input));
+    }
+}
@@ -0,0 +1,222 @@
+package org.devio.hi.ui.tab.bottom;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.AttributeSet;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
+import androidx.fragment.app.FragmentTransaction;
+import androidx.lifecycle.Lifecycle;
+
+import org.devio.hi.ui.tab.common.IHiTabLayout;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * 底部Tab对应Fragment的容器，注册为HiTabBottomLayout的OnTabSelectedListener即可随Tab切换页面
+ * 1. Fragment在第一次选中时才创建，不会在启动时创建全部页面
+ * 2. 隐藏的Fragment通过setMaxLifecycle限制在STARTED（默认）或CREATED，只有当前页面处于RESUMED
+ * 3. 可选的LRU上限：收到onTrimMemory时，按最近使用的顺序销毁超出上限的Fragment，再次选中时重新创建
+ */
+public class HiFragmentTabView extends FrameLayout implements IHiTabLayout.OnTabSelectedListener<HiTabBottomInfo<?>> {
+    private static final String TAG_PREFIX = "hi_fragment_tab_";
+
+    private FragmentManager fragmentManager;
+    private final List<HiTabBottomInfo<?>> infoList = new ArrayList<>();
+    //已创建的Fragment的tag，按访问顺序排列，最近使用的在最后
+    private final LinkedHashMap<String, Boolean> recentTags = new LinkedHashMap<>(16, 0.75f, true);
+    private int currentIndex = -1;
+    private Lifecycle.State hiddenMaxLifecycle = Lifecycle.State.STARTED;
+    private int maxCachedFragments;
+    //注册到Application，只关心内存不足的回调
+    private final ComponentCallbacks2 memoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            HiFragmentTabView.this.onTrimMemory(level);
+        }
+
+        @Override
+        public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        }
+
+        @Override
+        public void onLowMemory() {
+            HiFragmentTabView.this.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        }
+    };
+
+    public HiFragmentTabView(@NonNull Context context) {
+        this(context, null);
+    }
+
+    public HiFragmentTabView(@NonNull Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public HiFragmentTabView(@NonNull Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        if (getId() == NO_ID) {
+            setId(ViewCompat.generateViewId());
+        }
+    }
+
+    /**
+     * 初始化，需要在选中默认Tab之前调用
+     *
+     * @param fragmentManager 如Activity的getSupportFragmentManager或Fragment的getChildFragmentManager
+     * @param infoList        与HiTabBottomLayout相同的数据列表
+     */
+    public void setup(@NonNull FragmentManager fragmentManager, @NonNull List<HiTabBottomInfo<?>> infoList) {
+        this.fragmentManager = fragmentManager;
+        this.infoList.clear();
+        this.infoList.addAll(infoList);
+        recentTags.clear();
+        currentIndex = -1;
+        if (fragmentManager.isDestroyed()) {
+            return;
+        }
+        //页面重建时，FragmentManager已经恢复了之前创建的Fragment，且都是可见、RESUMED的状态
+        //统一隐藏并限制生命周期，之后由选中的Tab决定显示哪一个
+        FragmentTransaction transaction = null;
+        for (int i = 0; i < infoList.size(); i++) {
+            String tag = getTag(i);
+            Fragment fragment = fragmentManager.findFragmentByTag(tag);
+            if (fragment != null) {
+                if (transaction == null) {
+                    transaction = fragmentManager.beginTransaction();
+                }
+                transaction.hide(fragment);
+                transaction.setMaxLifecycle(fragment, hiddenMaxLifecycle);
+                recentTags.put(tag, Boolean.TRUE);
+            }
+        }
+        if (transaction != null) {
+            transaction.commitNowAllowingStateLoss();
+        }
+    }
+
+    /**
+     * 设置隐藏的Fragment最多能到达的生命周期，只能是STARTED或CREATED
+     */
+    public void setHiddenMaxLifecycle(@NonNull Lifecycle.State state) {
+        if (state != Lifecycle.State.STARTED && state != Lifecycle.State.CREATED) {
+            throw new IllegalArgumentException("hidden max lifecycle must be STARTED or CREATED");
+        }
+        hiddenMaxLifecycle = state;
+    }
+
+    /**
+     * 设置内存不足时最多保留的Fragment数量（包括当前页面），0表示不限制
+     */
+    public void setMaxCachedFragments(int maxCachedFragments) {
+        this.maxCachedFragments = Math.max(0, maxCachedFragments);
+    }
+
+    public int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    @Nullable
+    public Fragment getCurrentFragment() {
+        return currentIndex < 0 || fragmentManager == null ? null : fragmentManager.findFragmentByTag(getTag(currentIndex));
+    }
+
+    @Override
+    public void onTabSelectedChange(int index, @Nullable HiTabBottomInfo<?> prevInfo, @NonNull HiTabBottomInfo<?> nextInfo) {
+        setCurrentItem(index);
+    }
+
+    public void setCurrentItem(int index) {
+        if (fragmentManager == null || index < 0 || index >= infoList.size() || index == currentIndex
+                || fragmentManager.isDestroyed()) {
+            return;
+        }
+        FragmentTransaction transaction = fragmentManager.beginTransaction();
+        Fragment current = getCurrentFragment();
+        if (current != null) {
+            transaction.hide(current);
+            transaction.setMaxLifecycle(current, hiddenMaxLifecycle);
+        }
+        String tag = getTag(index);
+        Fragment next = fragmentManager.findFragmentByTag(tag);
+        if (next == null) {
+            Class<? extends Fragment> fragmentClass = infoList.get(index).fragment;
+            if (fragmentClass == null) {
+                throw new IllegalStateException("HiTabBottomInfo at " + index + " has no fragment");
+            }
+            next = fragmentManager.getFragmentFactory().instantiate(getContext().getClassLoader(), fragmentClass.getName());
+            transaction.add(getId(), next, tag);
+        } else {
+            transaction.show(next);
+        }
+        transaction.setMaxLifecycle(next, Lifecycle.State.RESUMED);
+        transaction.commitNowAllowingStateLoss();
+        currentIndex = index;
+        recentTags.put(tag, Boolean.TRUE);
+    }
+
+    /**
+     * 按最近使用的顺序销毁Fragment，直到数量不超过maxCount，当前页面不会被销毁
+     */
+    public void trimFragments(int maxCount) {
+        if (fragmentManager == null || fragmentManager.isDestroyed() || recentTags.size() <= maxCount) {
+            return;
+        }
+        String currentTag = currentIndex < 0 ? null : getTag(currentIndex);
+        FragmentTransaction transaction = null;
+        Iterator<String> iterator = recentTags.keySet().iterator();
+        int size = recentTags.size();
+        while (iterator.hasNext() && size > maxCount) {
+            String tag = iterator.next();
+            if (tag.equals(currentTag)) {
+                continue;
+            }
+            Fragment fragment = fragmentManager.findFragmentByTag(tag);
+            if (fragment != null) {
+                if (transaction == null) {
+                    transaction = fragmentManager.beginTransaction();
+                }
+                transaction.remove(fragment);
+            }
+            iterator.remove();
+            size--;
+        }
+        if (transaction != null) {
+            transaction.commitNowAllowingStateLoss();
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getContext().getApplicationContext().registerComponentCallbacks(memoryCallbacks);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        getContext().getApplicationContext().unregisterComponentCallbacks(memoryCallbacks);
+    }
+
+    /**
+     * 内存不足时按LRU上限销毁Fragment，已自动注册到Application，也可以在Activity的onTrimMemory中调用
+     */
+    public void onTrimMemory(int level) {
+        if (maxCachedFragments > 0 && level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            trimFragments(maxCachedFragments);
+        }
+    }
+
+    private static String getTag(int index) {
+        return TAG_PREFIX + index;
+    }
+}
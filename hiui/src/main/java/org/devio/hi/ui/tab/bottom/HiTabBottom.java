@@ -1,8 +1,9 @@
 package org.devio.hi.ui.tab.bottom;
 
 import android.content.Context;
-import android.graphics.Color;
-import android.graphics.Typeface;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.StateListDrawable;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
@@ -12,12 +13,12 @@ import android.widget.ImageView;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
 
-import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.Px;
 
 import org.devio.hi.ui.R;
+import org.devio.hi.ui.icfont.HiTypefaceCache;
 import org.devio.hi.ui.tab.common.IHiTab;
 
 /**
@@ -109,40 +110,46 @@ public class HiTabBottom extends RelativeLayout implements IHiTab<HiTabBottomInf
             if (init) {
                 tabImageView.setVisibility(GONE);
                 tabIconView.setVisibility(VISIBLE);
-                //通过TypeFace中的API，将传入的iconFont设置给tabIconView
-                Typeface typeface = Typeface.createFromAsset(getContext().getAssets(), tabInfo.iconFont);
-                tabIconView.setTypeface(typeface);
+                //从共享的字体缓存中获取iconFont，设置给tabIconView
+                tabIconView.setTypeface(HiTypefaceCache.get(getContext(), tabInfo.iconFont));
+                //选中、未选中的颜色构建为一个ColorStateList，切换时由selected状态决定颜色
+                tabIconView.setTextColor(tabInfo.getTextColors());
+                tabNameView.setTextColor(tabInfo.getTextColors());
+                tabIconView.setText(tabInfo.defaultIconName);
                 if (!TextUtils.isEmpty(tabInfo.name)) {
                     tabNameView.setText(tabInfo.name);
                 }
             }
 
-            //如果被选中了，需要将TextColor设置成选中状态的Color，否则使用默认Color
-            if (selected) {
-                tabIconView.setText(TextUtils.isEmpty(tabInfo.selectedIconName) ? tabInfo.defaultIconName : tabInfo.selectedIconName);
-                tabIconView.setTextColor(getTextColor(tabInfo.tintColor));
-                tabNameView.setTextColor(getTextColor(tabInfo.tintColor));
-            } else {
-                tabIconView.setText(tabInfo.defaultIconName);
-                tabIconView.setTextColor(getTextColor(tabInfo.defaultColor));
-                tabNameView.setTextColor(getTextColor(tabInfo.defaultColor));
+            //只有选中时的图标与默认图标不同时才需要修改文字
+            if (!TextUtils.isEmpty(tabInfo.selectedIconName)) {
+                tabIconView.setText(selected ? tabInfo.selectedIconName : tabInfo.defaultIconName);
             }
 
         } else if (tabInfo.tabType == HiTabBottomInfo.TabType.BITMAP) {
             if (init) {
                 tabImageView.setVisibility(VISIBLE);
                 tabIconView.setVisibility(GONE);
+                //默认、选中的Bitmap构建为一个StateListDrawable，切换时只需刷新状态
+                tabImageView.setImageDrawable(createStateDrawable(tabInfo.defaultBitmap, tabInfo.selectedBitmap));
                 if (!TextUtils.isEmpty(tabInfo.name)) {
                     tabNameView.setText(tabInfo.name);
                 }
             }
-            //如果被选中了，则将Bitmap设置成对应的选中状态下的Bitmap，否则使用默认Bitmap
-            if (selected) {
-                tabImageView.setImageBitmap(tabInfo.selectedBitmap);
-            } else {
-                tabImageView.setImageBitmap(tabInfo.defaultBitmap);
-            }
         }
+        //selected状态会分发给所有子View，颜色、图片的切换只会引起重绘，不会重新布局
+        setSelected(selected);
+    }
+
+    private StateListDrawable createStateDrawable(Bitmap defaultBitmap, Bitmap selectedBitmap) {
+        StateListDrawable drawable = new StateListDrawable();
+        //大小取两种状态中的最大值，切换状态时大小不变
+        drawable.setConstantSize(true);
+        if (selectedBitmap != null) {
+            drawable.addState(new int[]{android.R.attr.state_selected}, new BitmapDrawable(getResources(), selectedBitmap));
+        }
+        drawable.addState(new int[0], new BitmapDrawable(getResources(), defaultBitmap));
+        return drawable;
     }
 
     @Override
@@ -165,13 +172,4 @@ public class HiTabBottom extends RelativeLayout implements IHiTab<HiTabBottomInf
             inflateInfo(true, false);
         }
     }
-
-    @ColorInt
-    private int getTextColor(Object color) {
-        if (color instanceof String) {
-            return Color.parseColor((String) color);
-        } else {
-            return (int) color;
-        }
-    }
 }
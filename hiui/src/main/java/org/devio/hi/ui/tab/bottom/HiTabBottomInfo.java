@@ -1,9 +1,14 @@
 package org.devio.hi.ui.tab.bottom;
 
+import android.content.res.ColorStateList;
 import android.graphics.Bitmap;
 
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 
+import org.devio.hi.ui.tab.common.HiTabColors;
+
 
 /**
  * HiTabBottomInfo: 单个Tab对应的实体数据类
@@ -38,6 +43,9 @@ public class HiTabBottomInfo<Color>{
     public Color tintColor;
     public TabType tabType;
 
+    //defaultColor、tintColor解析后的结果，原始值被修改后重新解析
+    private final HiTabColors colors = new HiTabColors();
+
     /**
      传递Bitmap的构造方法
      */
@@ -60,4 +68,34 @@ public class HiTabBottomInfo<Color>{
         this.tintColor = tintColor;
         this.tabType = TabType.ICON;
     }
+
+    /**
+     * 将defaultColor、tintColor解析为@ColorInt，Tab填充数据时调用，之后的选中切换只需读取字段
+     *
+     * @throws IllegalArgumentException 颜色不是String或Integer类型
+     */
+    public void resolveColors() {
+        colors.resolve(defaultColor, tintColor);
+    }
+
+    @ColorInt
+    public int getDefaultColorInt() {
+        resolveColors();
+        return colors.getDefaultColorInt();
+    }
+
+    @ColorInt
+    public int getTintColorInt() {
+        resolveColors();
+        return colors.getTintColorInt();
+    }
+
+    /**
+     * @return 选中（state_selected）时为tintColor，否则为defaultColor，颜色不变时返回同一个实例
+     */
+    @NonNull
+    public ColorStateList getTextColors() {
+        resolveColors();
+        return colors.getTextColors();
+    }
 }
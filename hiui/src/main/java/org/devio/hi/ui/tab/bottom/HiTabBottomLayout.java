@@ -7,21 +7,26 @@ import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewParent;
 import android.widget.AbsListView;
 import android.widget.FrameLayout;
 import android.widget.ScrollView;
 
+import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.view.OnApplyWindowInsetsListener;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.WindowInsetsCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.devio.hi.library.util.HiDisplayUtil;
-import org.devio.hi.library.util.HiViewUtil;
 import org.devio.hi.ui.R;
 import org.devio.hi.ui.tab.common.IHiTabLayout;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 /**
@@ -34,18 +39,31 @@ public class HiTabBottomLayout extends FrameLayout implements IHiTabLayout<HiTab
      * 1.tabSelectedChangeListeners: 通过一个集合来存放所有注册的OnTabSelectedListener
      * 2.selectedInfo: 保存当前被选中Tab所对应的数据
      * 3.bottomAlpha: TabBottom整体透明度
-     * 4.tabBottomHeight: TabBottom高度
+     * 4.tabBottomHeight: TabBottom高度，每个实例独立设置
      * 5.bottomLineHeight: TabBottom的头部线条高度
      * 6.bottomLineColor: TabBottom的头部线条颜色
      * 7.infoList: TabBottom所对应的数据列表
+     * 8.infoIndexMap/tabs: 数据到位置、位置到Tab的映射，在inflateInfo时建立，按对象身份查找，选中和查找Tab都是O(1)
+     * 9.contentScrollView: 内容区域中需要设置底部padding的滚动容器，只查找一次，之后在仍属于内容区域时直接复用
+     * 10.bottomInset: 通过WindowInsets分发得到的底部系统窗口高度（如导航栏），与Tab高度一起作为内容区域的底部padding，
+     *   同时作为Tab容器的底部padding，让Tab显示在导航栏之上
+     * 11.bottomBackground/bottomLine: Tab的背景与顶部线条，随bottomInset调整高度和位置
      */
     private List<OnTabSelectedListener<HiTabBottomInfo<?>>> tabSelectedChangeListeners = new ArrayList<>();
     private HiTabBottomInfo<?> selectedInfo;
     private float bottomAlpha = 1f;
-    private static float tabBottomHeight = 50;
+    private static final float DEFAULT_TAB_BOTTOM_HEIGHT = 50;
+    private float tabBottomHeight = DEFAULT_TAB_BOTTOM_HEIGHT;
     private float bottomLineHeight = 0.5f;
-    private String bottomLineColor = "#dfe0e1";
+    @ColorInt
+    private int bottomLineColor = 0xffdfe0e1;
     private List<HiTabBottomInfo<?>> infoList;
+    private final IdentityHashMap<HiTabBottomInfo<?>, Integer> infoIndexMap = new IdentityHashMap<>();
+    private final List<HiTabBottom> tabs = new ArrayList<>();
+    private ViewGroup contentScrollView;
+    private int bottomInset;
+    private View bottomBackground;
+    private View bottomLine;
 
     public HiTabBottomLayout(@NonNull Context context) {
         this(context, null);
@@ -60,6 +78,18 @@ public class HiTabBottomLayout extends FrameLayout implements IHiTabLayout<HiTab
      */
     public HiTabBottomLayout(@NonNull Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
+        ViewCompat.setOnApplyWindowInsetsListener(this, new OnApplyWindowInsetsListener() {
+            @Override
+            public WindowInsetsCompat onApplyWindowInsets(View v, WindowInsetsCompat insets) {
+                if (bottomInset != insets.getSystemWindowInsetBottom()) {
+                    bottomInset = insets.getSystemWindowInsetBottom();
+                    applyBottomInset();
+                    fixContentView();
+                }
+                //保留默认的处理（如fitsSystemWindows），insets继续分发给子View
+                return ViewCompat.onApplyWindowInsets(v, insets);
+            }
+        });
     }
 
     /**
@@ -79,44 +109,34 @@ public class HiTabBottomLayout extends FrameLayout implements IHiTabLayout<HiTab
             removeViewAt(i);
         }
         selectedInfo = null;
+        infoIndexMap.clear();
+        tabs.clear();
         addBackground();
         /*
-            清除之前添加的HiTabBottom listener
-            Tips：Java foreach remove问题，这里如果用for循环来对集合进行遍历并删除集合中的元素时会报错，因为我们不能
-            既对集合做增删改查的同时又对集合做遍历，解决方案是用迭代器来实现
-         */
-        Iterator<OnTabSelectedListener<HiTabBottomInfo<?>>> iterator = tabSelectedChangeListeners.iterator();
-        while (iterator.hasNext()) {
-            if (iterator.next() instanceof HiTabBottom) {
-                iterator.remove();
-            }
-        }
-        /*
-            手动创建底部Tab的FrameLayout，设置其高度，并通过infoList的数量来计算出每一个Tab的宽度
+            底部Tab的容器在onMeasure/onLayout中按自身宽度平分给每个Tab，不依赖屏幕宽度，
+            分屏、折叠屏、横竖屏切换时只需重新布局
          */
-        FrameLayout ll = new FrameLayout(getContext());
+        TabContainer ll = new TabContainer(getContext());
         int height = HiDisplayUtil.dp2px(tabBottomHeight, getResources());
-        int width = HiDisplayUtil.getDisplayWidthInPx(getContext()) / infoList.size();
         //设置一个TAG，方便与其他Tab进行区分
         ll.setTag(TAG_TAB_BOTTOM);
         for (int i = 0; i < infoList.size(); i++) {
             final HiTabBottomInfo<?> info = infoList.get(i);
             /*
              * Tips：为何不用LinearLayout：因为TabBottom控件的高度是可以动态调整的，我们设置图标时是可以设置为超出其默认高度的。
-             * 如果使用LinearLayout得话，当动态改变child大小后Gravity.BOTTOM会失效，所以我们使用FrameLayout来构建底部布局
+             * 如果使用LinearLayout得话，当动态改变child大小后Gravity.BOTTOM会失效，所以TabContainer中每个Tab都底部对齐
             */
-            LayoutParams params = new LayoutParams(width, height);
-            params.gravity = Gravity.BOTTOM;
-            params.leftMargin = i * width;
+            ViewGroup.LayoutParams params = new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, height);
 
             /*
-                实例化TabBottom，为每一个TabBottom实例都注册一个tabSelectedChangeListener，并将每一个TabBottom
-                对应的数据添加进去
+                实例化TabBottom，并将每一个TabBottom对应的数据添加进去
+                TabBottom不再注册为tabSelectedChangeListener，选中变化时只直接通知前后两个Tab
              */
             HiTabBottom tabBottom = new HiTabBottom(getContext());
-            tabSelectedChangeListeners.add(tabBottom);
             tabBottom.setHiTabInfo(info);
-            //将继承于RelativeLayout的控件HiTabBottom按照从左到右的顺序进行排列，添加到FrameLayout中
+            infoIndexMap.put(info, i);
+            tabs.add(tabBottom);
+            //将继承于RelativeLayout的控件HiTabBottom按照从左到右的顺序添加到容器中
             ll.addView(tabBottom, params);
             tabBottom.setOnClickListener(new OnClickListener() {
                 @Override
@@ -129,8 +149,9 @@ public class HiTabBottomLayout extends FrameLayout implements IHiTabLayout<HiTab
         LayoutParams flPrams = new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
         flPrams.gravity = Gravity.BOTTOM;
         addBottomLine();
-        //将FrameLayout添加到整个容器的底部
+        //将Tab容器添加到整个容器的底部
         addView(ll, flPrams);
+        applyBottomInset();
         //修复内容区域的底部部分内容被TabBottom遮挡的问题
         fixContentView();
     }
@@ -153,29 +174,29 @@ public class HiTabBottomLayout extends FrameLayout implements IHiTabLayout<HiTab
     }
 
     public void setBottomLineColor(String bottomLineColor) {
+        this.bottomLineColor = Color.parseColor(bottomLineColor);
+    }
+
+    public void setBottomLineColor(@ColorInt int bottomLineColor) {
         this.bottomLineColor = bottomLineColor;
     }
 
     /**
-     * 通过数据来找到对应的Tab
-     * 
-     * 这里需要为FrameLayout设置一个Tag，然后通过这个Tag找到对应的ViewGroup，
-     * 再遍历这个ViewGroup，针对每个Tab，通过getHiTabInfo获取对应的info，进行比对
+     * 通过数据来找到对应的Tab，通过inflateInfo时建立的映射直接查找
      */
     @Nullable
     @Override
     public HiTabBottom findTab(@NonNull HiTabBottomInfo<?> info) {
-        ViewGroup ll = findViewWithTag(TAG_TAB_BOTTOM);
-        for (int i = 0; i < ll.getChildCount(); i++) {
-            View child = ll.getChildAt(i);
-            if (child instanceof HiTabBottom) {
-                HiTabBottom tab = (HiTabBottom) child;
-                if (tab.getHiTabInfo() == info) {
-                    return tab;
-                }
-            }
-        }
-        return null;
+        int index = indexOf(info);
+        return index < 0 ? null : tabs.get(index);
+    }
+
+    /**
+     * @return 数据在infoList中的位置，不存在时返回-1
+     */
+    public int indexOf(@NonNull HiTabBottomInfo<?> info) {
+        Integer index = infoIndexMap.get(info);
+        return index == null ? -1 : index;
     }
 
     @Override
@@ -184,11 +205,23 @@ public class HiTabBottomLayout extends FrameLayout implements IHiTabLayout<HiTab
     }
 
     /**
-     * 遍历所有的监听器，通知它们TabBottom的选择产生了变化，并调用它们的回调onTabSelectedChange
+     * 通知前后两个Tab以及外部注册的监听器，TabBottom的选择产生了变化
      */
     private void onSelected(@NonNull HiTabBottomInfo<?> nextInfo) {
-        for (OnTabSelectedListener<HiTabBottomInfo<?>> listener : tabSelectedChangeListeners) {
-            listener.onTabSelectedChange(infoList.indexOf(nextInfo), selectedInfo, nextInfo);
+        int index = indexOf(nextInfo);
+        HiTabBottomInfo<?> prevInfo = selectedInfo;
+        if (prevInfo != null) {
+            HiTabBottom prevTab = findTab(prevInfo);
+            if (prevTab != null) {
+                prevTab.onTabSelectedChange(index, prevInfo, nextInfo);
+            }
+        }
+        HiTabBottom nextTab = findTab(nextInfo);
+        if (nextTab != null) {
+            nextTab.onTabSelectedChange(index, prevInfo, nextInfo);
+        }
+        for (int i = 0; i < tabSelectedChangeListeners.size(); i++) {
+            tabSelectedChangeListeners.get(i).onTabSelectedChange(index, prevInfo, nextInfo);
         }
         this.selectedInfo = nextInfo;
     }
@@ -197,8 +230,8 @@ public class HiTabBottomLayout extends FrameLayout implements IHiTabLayout<HiTab
      * 添加底部的分割线条
      */
     private void addBottomLine() {
-        View bottomLine = new View(getContext());
-        bottomLine.setBackgroundColor(Color.parseColor(bottomLineColor));
+        bottomLine = new View(getContext());
+        bottomLine.setBackgroundColor(bottomLineColor);
 
         LayoutParams bottomLineParams =
                 new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, HiDisplayUtil.dp2px(bottomLineHeight, getResources()));
@@ -212,13 +245,39 @@ public class HiTabBottomLayout extends FrameLayout implements IHiTabLayout<HiTab
      * 动态添加背景色
      */
     private void addBackground() {
-        View view = LayoutInflater.from(getContext()).inflate(R.layout.hi_bottom_layout_bg, null);
+        bottomBackground = LayoutInflater.from(getContext()).inflate(R.layout.hi_bottom_layout_bg, null);
 
         LayoutParams params =
                 new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, HiDisplayUtil.dp2px(tabBottomHeight, getResources()));
         params.gravity = Gravity.BOTTOM;
-        addView(view, params);
-        view.setAlpha(bottomAlpha);
+        addView(bottomBackground, params);
+        bottomBackground.setAlpha(bottomAlpha);
+    }
+
+    /**
+     * 底部系统窗口高度作为Tab容器的底部padding，背景加高、顶部线条上移，与内容区域的底部padding保持一致
+     */
+    private void applyBottomInset() {
+        View tabContainer = findViewWithTag(TAG_TAB_BOTTOM);
+        if (tabContainer != null && tabContainer.getPaddingBottom() != bottomInset) {
+            tabContainer.setPadding(0, 0, 0, bottomInset);
+        }
+        if (bottomBackground != null) {
+            ViewGroup.LayoutParams params = bottomBackground.getLayoutParams();
+            int height = HiDisplayUtil.dp2px(tabBottomHeight, getResources()) + bottomInset;
+            if (params.height != height) {
+                params.height = height;
+                bottomBackground.setLayoutParams(params);
+            }
+        }
+        if (bottomLine != null) {
+            LayoutParams params = (LayoutParams) bottomLine.getLayoutParams();
+            int bottomMargin = HiDisplayUtil.dp2px(tabBottomHeight - bottomLineHeight, getResources()) + bottomInset;
+            if (params.bottomMargin != bottomMargin) {
+                params.bottomMargin = bottomMargin;
+                bottomLine.setLayoutParams(params);
+            }
+        }
     }
 
     private static final String TAG_TAB_BOTTOM = "TAG_TAB_BOTTOM";
@@ -238,47 +297,184 @@ public class HiTabBottomLayout extends FrameLayout implements IHiTabLayout<HiTab
      *    则直接调用clipBottomPadding，将viewPager传进来，进行Padding的设置。
      */
     private void fixContentView() {
+        ViewGroup targetView = findContentScrollView();
+        //将视图列表与底部TabView设置padding
+        if (targetView != null) {
+            applyBottomPadding(targetView, getContentBottomPadding());
+        }
+    }
+
+    /**
+     * @return 内容区域需要的底部padding：Tab高度加上底部的系统窗口高度
+     */
+    public int getContentBottomPadding() {
+        return HiDisplayUtil.dp2px(tabBottomHeight, getResources()) + bottomInset;
+    }
+
+    /**
+     * 查找内容区域中的滚动容器，优先级为RecyclerView > ScrollView > AbsListView
+     * 只遍历一次视图树，找到RecyclerView时立即结束；结果会被缓存，只要仍在内容区域中就不会重新查找
+     */
+    @Nullable
+    private ViewGroup findContentScrollView() {
         if (!(getChildAt(0) instanceof ViewGroup)) {
-            return;
+            return null;
         }
         ViewGroup rootView = (ViewGroup) getChildAt(0);
-        //targetView为HiTabBottomLayout上方的列表视图，可能是RecyclerView/ScrollView/AbsListView中的一种
-        ViewGroup targetView = HiViewUtil.findTypeView(rootView, RecyclerView.class);
-        if (targetView == null) {
-            targetView = HiViewUtil.findTypeView(rootView, ScrollView.class);
+        if (contentScrollView != null && isDescendant(rootView, contentScrollView)) {
+            return contentScrollView;
         }
-        
-        if (targetView == null) {
-            targetView = HiViewUtil.findTypeView(rootView, AbsListView.class);
+        ViewGroup scrollView = null;
+        ViewGroup listView = null;
+        ArrayDeque<ViewGroup> queue = new ArrayDeque<>();
+        queue.add(rootView);
+        while (!queue.isEmpty()) {
+            ViewGroup group = queue.poll();
+            if (group instanceof RecyclerView) {
+                contentScrollView = group;
+                return group;
+            } else if (group instanceof ScrollView) {
+                if (scrollView == null) {
+                    scrollView = group;
+                }
+            } else if (group instanceof AbsListView) {
+                if (listView == null) {
+                    listView = group;
+                }
+            }
+            for (int i = 0; i < group.getChildCount(); i++) {
+                View child = group.getChildAt(i);
+                if (child instanceof ViewGroup) {
+                    queue.add((ViewGroup) child);
+                }
+            }
         }
-        //将视图列表与底部TabView设置padding
-        if (targetView != null) {
-            targetView.setPadding(0, 0, 0, HiDisplayUtil.dp2px(tabBottomHeight, getResources()));
-            targetView.setClipToPadding(false);
+        contentScrollView = scrollView != null ? scrollView : listView;
+        return contentScrollView;
+    }
+
+    private static boolean isDescendant(ViewGroup ancestor, View view) {
+        View current = view;
+        while (current != null) {
+            if (current == ancestor) {
+                return true;
+            }
+            ViewParent parent = current.getParent();
+            current = parent instanceof View ? (View) parent : null;
+        }
+        return false;
+    }
+
+    private static void applyBottomPadding(ViewGroup targetView, int bottomPadding) {
+        if (targetView.getPaddingBottom() != bottomPadding) {
+            targetView.setPadding(targetView.getPaddingLeft(), targetView.getPaddingTop(), targetView.getPaddingRight(), bottomPadding);
         }
+        targetView.setClipToPadding(false);
     }
 
     /**
      * 提供给外部的接口，用于给targetView设置padding
+     * 通过targetView的父View查找所在的HiTabBottomLayout，因此targetView需要已经添加到视图树中；
+     * 在Fragment的onViewCreated中调用时，Fragment的View还没有添加到容器中，此时只能使用默认的Tab高度，
+     * 应改为调用{@link #clipBottomPadding(ViewGroup, HiTabBottomLayout)}
      * @param targetView
      */
     public static void clipBottomPadding(ViewGroup targetView) {
-        if (targetView != null) {
-            targetView.setPadding(0, 0, 0, HiDisplayUtil.dp2px(tabBottomHeight));
-            targetView.setClipToPadding(false);
+        if (targetView == null) {
+            return;
+        }
+        //使用targetView所在的HiTabBottomLayout的设置，不在HiTabBottomLayout中时使用默认高度
+        ViewParent parent = targetView.getParent();
+        while (parent != null && !(parent instanceof HiTabBottomLayout)) {
+            parent = parent.getParent();
         }
+        int bottomPadding = parent != null ? ((HiTabBottomLayout) parent).getContentBottomPadding()
+                : HiDisplayUtil.dp2px(DEFAULT_TAB_BOTTOM_HEIGHT, targetView.getResources());
+        applyBottomPadding(targetView, bottomPadding);
     }
 
+    /**
+     * 提供给外部的接口，使用指定的HiTabBottomLayout的Tab高度和底部系统窗口高度给targetView设置padding，
+     * 不要求targetView已经添加到视图树中
+     * 注意：底部系统窗口高度之后发生变化时，需要再次调用
+     */
+    public static void clipBottomPadding(ViewGroup targetView, @NonNull HiTabBottomLayout tabBottomLayout) {
+        if (targetView == null) {
+            return;
+        }
+        applyBottomPadding(targetView, tabBottomLayout.getContentBottomPadding());
+    }
+
+    /**
+     * Tab的宽度在布局时根据容器宽度计算，宽度变化时会自动重新布局，这里只需请求一次布局
+     */
     public void resizeHiTabBottomLayout() {
-        int width = HiDisplayUtil.getDisplayWidthInPx(getContext()) / infoList.size();
-        ViewGroup frameLayout = (ViewGroup) getChildAt(getChildCount() - 1);
-        int childCount = frameLayout.getChildCount();
-        for (int i = 0; i < childCount; i++) {
-            View button = frameLayout.getChildAt(i);
-            FrameLayout.LayoutParams params = (LayoutParams) button.getLayoutParams();
-            params.width = width;
-            params.leftMargin = i * width;
-            button.setLayoutParams(params);
+        View tabContainer = findViewWithTag(TAG_TAB_BOTTOM);
+        if (tabContainer != null) {
+            tabContainer.requestLayout();
+        }
+    }
+
+    /**
+     * 底部Tab的容器，将自身测量的宽度平分给每个Tab
+     * 每个Tab底部对齐，高度由各自的LayoutParams决定，可以超出默认高度；底部padding为系统窗口高度
+     */
+    private static class TabContainer extends ViewGroup {
+
+        TabContainer(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            int width = MeasureSpec.getSize(widthMeasureSpec);
+            int visibleCount = getVisibleChildCount();
+            int maxHeight = 0;
+            int index = 0;
+            for (int i = 0; i < getChildCount(); i++) {
+                View child = getChildAt(i);
+                if (child.getVisibility() == GONE) {
+                    continue;
+                }
+                int childWidthSpec = MeasureSpec.makeMeasureSpec(tabWidth(width, visibleCount, index++), MeasureSpec.EXACTLY);
+                int childHeightSpec = getChildMeasureSpec(heightMeasureSpec, 0, child.getLayoutParams().height);
+                child.measure(childWidthSpec, childHeightSpec);
+                maxHeight = Math.max(maxHeight, child.getMeasuredHeight());
+            }
+            setMeasuredDimension(width, resolveSize(maxHeight + getPaddingBottom(), heightMeasureSpec));
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int l, int t, int r, int b) {
+            //Tab底部对齐到padding之上，padding区域留给导航栏
+            int bottom = b - t - getPaddingBottom();
+            int left = 0;
+            for (int i = 0; i < getChildCount(); i++) {
+                View child = getChildAt(i);
+                if (child.getVisibility() == GONE) {
+                    continue;
+                }
+                int childWidth = child.getMeasuredWidth();
+                child.layout(left, bottom - child.getMeasuredHeight(), left + childWidth, bottom);
+                left += childWidth;
+            }
+        }
+
+        private int getVisibleChildCount() {
+            int count = 0;
+            for (int i = 0; i < getChildCount(); i++) {
+                if (getChildAt(i).getVisibility() != GONE) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * 不能整除时，余下的像素分给前面的Tab，保证所有Tab刚好铺满
+         */
+        private static int tabWidth(int width, int count, int index) {
+            return width / count + (index < width % count ? 1 : 0);
         }
     }
 }
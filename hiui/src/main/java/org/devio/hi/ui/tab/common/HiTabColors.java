@@ -0,0 +1,81 @@
+package org.devio.hi.ui.tab.common;
+
+import android.content.res.ColorStateList;
+import android.graphics.Color;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Tab数据中defaultColor、tintColor的解析缓存，供HiTabBottomInfo、HiTabTopInfo共用
+ * 颜色支持String（如"#ff0000"）和Integer（@ColorInt）两种类型，原始值被替换后才重新解析
+ */
+public final class HiTabColors {
+    @ColorInt
+    private int defaultColorInt;
+    @ColorInt
+    private int tintColorInt;
+    //解析时对应的原始值
+    private Object resolvedDefaultColor;
+    private Object resolvedTintColor;
+    private ColorStateList textColors;
+
+    /**
+     * 原始值与上次解析时不同才重新解析
+     */
+    public void resolve(@Nullable Object defaultColor, @Nullable Object tintColor) {
+        if (resolvedDefaultColor != defaultColor) {
+            defaultColorInt = parseColor(defaultColor);
+            resolvedDefaultColor = defaultColor;
+            textColors = null;
+        }
+        if (resolvedTintColor != tintColor) {
+            tintColorInt = parseColor(tintColor);
+            resolvedTintColor = tintColor;
+            textColors = null;
+        }
+    }
+
+    @ColorInt
+    public int getDefaultColorInt() {
+        return defaultColorInt;
+    }
+
+    @ColorInt
+    public int getTintColorInt() {
+        return tintColorInt;
+    }
+
+    /**
+     * @return 选中（state_selected）时为tintColor，否则为defaultColor，颜色不变时返回同一个实例
+     */
+    @NonNull
+    public ColorStateList getTextColors() {
+        if (textColors == null) {
+            textColors = new ColorStateList(
+                    new int[][]{new int[]{android.R.attr.state_selected}, new int[0]},
+                    new int[]{tintColorInt, defaultColorInt});
+        }
+        return textColors;
+    }
+
+    /**
+     * 将颜色解析为@ColorInt
+     *
+     * @param color String或Integer类型的颜色，为null时解析为0（透明）
+     * @throws IllegalArgumentException 颜色不是String或Integer类型，或者String无法解析
+     */
+    @ColorInt
+    public static int parseColor(@Nullable Object color) {
+        if (color == null) {
+            return 0;
+        } else if (color instanceof String) {
+            return Color.parseColor((String) color);
+        } else if (color instanceof Integer) {
+            return (Integer) color;
+        }
+        throw new IllegalArgumentException("unsupported color type: " + color.getClass().getName()
+                + ", only String and Integer are supported");
+    }
+}
@@ -0,0 +1,113 @@
+package org.devio.hi.ui.tab.top;
+
+import android.animation.ValueAnimator;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import org.devio.hi.library.util.HiDisplayUtil;
+import org.devio.hi.ui.R;
+
+/**
+ * 顶部Tab的滑动指示器，由Tab容器统一绘制，代替每个Tab中各自隐藏、显示的指示器View
+ * 指示器的位置用浮点数表示：整数部分为当前Tab，小数部分为向下一个Tab滑动的比例，可以直接跟随ViewPager的onPageScrolled
+ */
+class HiTabIndicator {
+    private static final int ANIMATION_DURATION = 200;
+
+    private final View host;
+    private final Drawable drawable;
+    private final int height;
+    private float position = -1;
+    private ValueAnimator animator;
+
+    HiTabIndicator(@NonNull View host) {
+        this.host = host;
+        this.drawable = ContextCompat.getDrawable(host.getContext(), R.drawable.shape_tab_top_indicator);
+        this.height = HiDisplayUtil.dp2px(2, host.getResources());
+    }
+
+    float getPosition() {
+        return position;
+    }
+
+    /**
+     * 直接定位到指定位置，会取消进行中的动画
+     */
+    void setPosition(float position) {
+        if (animator != null) {
+            animator.cancel();
+        }
+        this.position = position;
+        host.invalidate();
+    }
+
+    /**
+     * 从当前位置滑动到指定的Tab，第一次选中时直接定位
+     */
+    void animateTo(int index) {
+        if (position < 0) {
+            setPosition(index);
+            return;
+        }
+        if (animator == null) {
+            animator = new ValueAnimator();
+            animator.setDuration(ANIMATION_DURATION);
+            animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    position = (float) animation.getAnimatedValue();
+                    host.invalidate();
+                }
+            });
+        } else {
+            animator.cancel();
+        }
+        animator.setFloatValues(position, index);
+        animator.start();
+    }
+
+    void cancel() {
+        if (animator != null) {
+            animator.cancel();
+        }
+    }
+
+    /**
+     * 在两个Tab之间按比例绘制指示器，指示器的宽度与Tab内容区域相同，位于Tab底部
+     *
+     * @param from     position所在的Tab，为null时不绘制
+     * @param to       下一个Tab，为null时停在from上
+     * @param fraction 向下一个Tab滑动的比例
+     * @param dx       Tab相对于画布的横向偏移
+     * @param dy       Tab相对于画布的纵向偏移
+     */
+    void draw(@NonNull Canvas canvas, @Nullable View from, @Nullable View to, float fraction, int dx, int dy) {
+        if (drawable == null || from == null) {
+            return;
+        }
+        if (to == null) {
+            to = from;
+        }
+        int left = (int) (contentLeft(from) + (contentLeft(to) - contentLeft(from)) * fraction) + dx;
+        int right = (int) (contentRight(from) + (contentRight(to) - contentRight(from)) * fraction) + dx;
+        int bottom = from.getBottom() + dy;
+        drawable.setBounds(left, bottom - height, right, bottom);
+        drawable.draw(canvas);
+    }
+
+    private static int contentLeft(View tab) {
+        View content = tab instanceof ViewGroup && ((ViewGroup) tab).getChildCount() > 0 ? ((ViewGroup) tab).getChildAt(0) : tab;
+        return tab.getLeft() + (content == tab ? 0 : content.getLeft()) + content.getPaddingLeft();
+    }
+
+    private static int contentRight(View tab) {
+        View content = tab instanceof ViewGroup && ((ViewGroup) tab).getChildCount() > 0 ? ((ViewGroup) tab).getChildAt(0) : tab;
+        return tab.getLeft() + (content == tab ? tab.getWidth() : content.getRight()) - content.getPaddingRight();
+    }
+}
@@ -1,8 +1,10 @@
 package org.devio.hi.ui.tab.top;
 
 import android.content.Context;
-import android.graphics.Color;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.GradientDrawable;
+import android.graphics.drawable.StateListDrawable;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
@@ -12,7 +14,6 @@ import android.widget.ImageView;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
 
-import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.Px;
@@ -24,7 +25,6 @@ public class HiTabTop extends RelativeLayout implements IHiTab<HiTabTopInfo<?>>
     private HiTabTopInfo<?> tabInfo;
     private ImageView tabImageView;
     private TextView tabNameView;
-    private View indicator;
 
     public HiTabTop(Context context) {
         this(context, null);
@@ -43,7 +43,6 @@ public class HiTabTop extends RelativeLayout implements IHiTab<HiTabTopInfo<?>>
         LayoutInflater.from(getContext()).inflate(R.layout.hi_tab_top, this);
         tabImageView = findViewById(R.id.iv_image);
         tabNameView = findViewById(R.id.tv_name);
-        indicator = findViewById(R.id.tab_top_indicator);
     }
 
     @Override
@@ -52,6 +51,21 @@ public class HiTabTop extends RelativeLayout implements IHiTab<HiTabTopInfo<?>>
         inflateInfo(false, true);
     }
 
+    /**
+     * 复用Tab时重新绑定数据，选中状态由外部的数据决定
+     */
+    public void bindHiTabInfo(@NonNull HiTabTopInfo<?> hiTabInfo, boolean selected) {
+        this.tabInfo = hiTabInfo;
+        inflateInfo(selected, true);
+    }
+
+    /**
+     * 只更新选中状态
+     */
+    public void updateSelected(boolean selected) {
+        inflateInfo(selected, false);
+    }
+
     public HiTabTopInfo<?> getHiTabInfo() {
         return tabInfo;
     }
@@ -78,35 +92,34 @@ public class HiTabTop extends RelativeLayout implements IHiTab<HiTabTopInfo<?>>
     }
 
     private void inflateInfo(boolean selected, boolean init) {
-        if (tabInfo.tabType == HiTabTopInfo.TabType.TXT) {
-            if (init) {
+        if (init) {
+            if (tabInfo.tabType == HiTabTopInfo.TabType.TXT) {
                 tabNameView.setVisibility(VISIBLE);
                 tabImageView.setVisibility(GONE);
-                if (!TextUtils.isEmpty(tabInfo.name)) {
-                    tabNameView.setText(tabInfo.name);
-                }
-            }
-            if (selected) {
-                indicator.setVisibility(VISIBLE);
-                tabNameView.setTextColor(getTextColor(tabInfo.tintColor));
-            } else {
-                indicator.setVisibility(GONE);
-                tabNameView.setTextColor(getTextColor(tabInfo.defaultColor));
-            }
-
-        } else if (tabInfo.tabType == HiTabTopInfo.TabType.BITMAP) {
-            if (init) {
+                //选中、未选中的颜色构建为一个ColorStateList，切换时由selected状态决定颜色
+                tabNameView.setTextColor(tabInfo.getTextColors());
+                //复用时必须覆盖上一个Tab的内容：名称为空时清空文字，并释放之前的图片
+                tabNameView.setText(TextUtils.isEmpty(tabInfo.name) ? "" : tabInfo.name);
+                tabImageView.setImageDrawable(null);
+            } else if (tabInfo.tabType == HiTabTopInfo.TabType.BITMAP) {
                 tabImageView.setVisibility(VISIBLE);
                 tabNameView.setVisibility(GONE);
+                tabImageView.setImageDrawable(createStateDrawable(tabInfo.defaultBitmap, tabInfo.selectedBitmap));
             }
-            if (selected) {
-                indicator.setVisibility(VISIBLE);
-                tabImageView.setImageBitmap(tabInfo.selectedBitmap);
-            } else {
-                indicator.setVisibility(GONE);
-                tabImageView.setImageBitmap(tabInfo.defaultBitmap);
-            }
         }
+        //指示器由HiTabTopLayout统一绘制，这里只需切换selected状态，只会引起重绘
+        setSelected(selected);
+    }
+
+    private StateListDrawable createStateDrawable(Bitmap defaultBitmap, Bitmap selectedBitmap) {
+        StateListDrawable drawable = new StateListDrawable();
+        //大小取两种状态中的最大值，切换状态时大小不变
+        drawable.setConstantSize(true);
+        if (selectedBitmap != null) {
+            drawable.addState(new int[]{android.R.attr.state_selected}, new BitmapDrawable(getResources(), selectedBitmap));
+        }
+        drawable.addState(new int[0], new BitmapDrawable(getResources(), defaultBitmap));
+        return drawable;
     }
 
     @Override
@@ -120,13 +133,4 @@ public class HiTabTop extends RelativeLayout implements IHiTab<HiTabTopInfo<?>>
             inflateInfo(true, false);
         }
     }
-
-    @ColorInt
-    private int getTextColor(Object color) {
-        if (color instanceof String) {
-            return Color.parseColor((String) color);
-        } else {
-            return (int) color;
-        }
-    }
 }
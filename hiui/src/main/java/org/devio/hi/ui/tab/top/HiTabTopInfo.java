@@ -1,9 +1,14 @@
 package org.devio.hi.ui.tab.top;
 
+import android.content.res.ColorStateList;
 import android.graphics.Bitmap;
 
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 
+import org.devio.hi.ui.tab.common.HiTabColors;
+
 public class HiTabTopInfo<Color> {
     public enum TabType {
         BITMAP, TXT
@@ -17,6 +22,9 @@ public class HiTabTopInfo<Color> {
     public Color tintColor;
     public TabType tabType;
 
+    //defaultColor、tintColor解析后的结果，原始值被修改后重新解析
+    private final HiTabColors colors = new HiTabColors();
+
     public HiTabTopInfo(String name, Bitmap defaultBitmap, Bitmap selectedBitmap) {
         this.name = name;
         this.defaultBitmap = defaultBitmap;
@@ -30,4 +38,34 @@ public class HiTabTopInfo<Color> {
         this.tintColor = tintColor;
         this.tabType = TabType.TXT;
     }
+
+    /**
+     * 将defaultColor、tintColor解析为@ColorInt，Tab填充数据时调用，之后的选中切换只需读取字段
+     *
+     * @throws IllegalArgumentException 颜色不是String或Integer类型
+     */
+    public void resolveColors() {
+        colors.resolve(defaultColor, tintColor);
+    }
+
+    @ColorInt
+    public int getDefaultColorInt() {
+        resolveColors();
+        return colors.getDefaultColorInt();
+    }
+
+    @ColorInt
+    public int getTintColorInt() {
+        resolveColors();
+        return colors.getTintColorInt();
+    }
+
+    /**
+     * @return 选中（state_selected）时为tintColor，否则为defaultColor，颜色不变时返回同一个实例
+     */
+    @NonNull
+    public ColorStateList getTextColors() {
+        resolveColors();
+        return colors.getTextColors();
+    }
 }
@@ -1,10 +1,10 @@
 package org.devio.hi.ui.tab.top;
 
 import android.content.Context;
+import android.graphics.Canvas;
 import android.graphics.Rect;
 import android.util.AttributeSet;
 import android.view.View;
-import android.view.ViewGroup;
 import android.widget.HorizontalScrollView;
 import android.widget.LinearLayout;
 
@@ -15,7 +15,7 @@ import org.devio.hi.library.util.HiDisplayUtil;
 import org.devio.hi.ui.tab.common.IHiTabLayout;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 /**
@@ -26,6 +26,10 @@ public class HiTabTopLayout extends HorizontalScrollView implements IHiTabLayout
     private List<OnTabSelectedListener<HiTabTopInfo<?>>> tabSelectedChangeListeners = new ArrayList<>();
     private HiTabTopInfo<?> selectedInfo;
     private List<HiTabTopInfo<?>> infoList;
+    //数据到位置、位置到Tab的映射，在inflateInfo时建立，按对象身份查找
+    private final IdentityHashMap<HiTabTopInfo<?>, Integer> infoIndexMap = new IdentityHashMap<>();
+    private final List<HiTabTop> tabs = new ArrayList<>();
+    private final HiTabIndicator indicator;
 
     public HiTabTopLayout(Context context) {
         this(context, null);
@@ -38,6 +42,7 @@ public class HiTabTopLayout extends HorizontalScrollView implements IHiTabLayout
     public HiTabTopLayout(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
         setVerticalScrollBarEnabled(false);
+        indicator = new HiTabIndicator(this);
     }
 
     @Override
@@ -48,18 +53,16 @@ public class HiTabTopLayout extends HorizontalScrollView implements IHiTabLayout
         this.infoList = infoList;
         LinearLayout linearLayout = getRootLayout(true);
         selectedInfo = null;
-        //清除之前添加的HiTabTop listener，Tips：Java foreach remove问题
-        Iterator<OnTabSelectedListener<HiTabTopInfo<?>>> iterator = tabSelectedChangeListeners.iterator();
-        while (iterator.hasNext()) {
-            if (iterator.next() instanceof HiTabTop) {
-                iterator.remove();
-            }
-        }
+        indicator.setPosition(-1);
+        infoIndexMap.clear();
+        tabs.clear();
+        //HiTabTop不再注册为listener，选中变化时只直接通知前后两个Tab
         for (int i = 0; i < infoList.size(); i++) {
             final HiTabTopInfo<?> info = infoList.get(i);
             HiTabTop tab = new HiTabTop(getContext());
-            tabSelectedChangeListeners.add(tab);
             tab.setHiTabInfo(info);
+            infoIndexMap.put(info, i);
+            tabs.add(tab);
             linearLayout.addView(tab);
             tab.setOnClickListener(new OnClickListener() {
                 @Override
@@ -92,17 +95,16 @@ public class HiTabTopLayout extends HorizontalScrollView implements IHiTabLayout
     @Nullable
     @Override
     public HiTabTop findTab(@NonNull HiTabTopInfo info) {
-        ViewGroup ll = getRootLayout(false);
-        for (int i = 0; i < ll.getChildCount(); i++) {
-            View child = ll.getChildAt(i);
-            if (child instanceof HiTabTop) {
-                HiTabTop tab = (HiTabTop) child;
-                if (tab.getHiTabInfo() == info) {
-                    return tab;
-                }
-            }
-        }
-        return null;
+        int index = indexOf(info);
+        return index < 0 ? null : tabs.get(index);
+    }
+
+    /**
+     * @return 数据在infoList中的位置，不存在时返回-1
+     */
+    public int indexOf(@NonNull HiTabTopInfo<?> info) {
+        Integer index = infoIndexMap.get(info);
+        return index == null ? -1 : index;
     }
 
     @Override
@@ -110,12 +112,57 @@ public class HiTabTopLayout extends HorizontalScrollView implements IHiTabLayout
         onSelected(defaultInfo);
     }
 
-    private void onSelected(@NonNull HiTabTopInfo nextInfo) {
-        for (OnTabSelectedListener<HiTabTopInfo<?>> listener : tabSelectedChangeListeners) {
-            listener.onTabSelectedChange(infoList.indexOf(nextInfo), selectedInfo, nextInfo);
+    /**
+     * 通知前后两个Tab以及外部注册的监听器，选择产生了变化
+     */
+    private void onSelected(@NonNull HiTabTopInfo<?> nextInfo) {
+        int index = indexOf(nextInfo);
+        HiTabTopInfo<?> prevInfo = selectedInfo;
+        if (prevInfo != null) {
+            HiTabTop prevTab = findTab(prevInfo);
+            if (prevTab != null) {
+                prevTab.onTabSelectedChange(index, prevInfo, nextInfo);
+            }
+        }
+        HiTabTop nextTab = findTab(nextInfo);
+        if (nextTab != null) {
+            nextTab.onTabSelectedChange(index, prevInfo, nextInfo);
+        }
+        for (int i = 0; i < tabSelectedChangeListeners.size(); i++) {
+            tabSelectedChangeListeners.get(i).onTabSelectedChange(index, prevInfo, nextInfo);
         }
         this.selectedInfo = nextInfo;
-        autoScroll(nextInfo);
+        indicator.animateTo(index);
+        autoScroll(index);
+    }
+
+    /**
+     * 指示器跟随ViewPager滑动，在ViewPager.OnPageChangeListener的onPageScrolled中调用
+     *
+     * @param position       当前页面的位置
+     * @param positionOffset 向下一页滑动的比例
+     */
+    public void onPageScrolled(int position, float positionOffset) {
+        indicator.setPosition(position + positionOffset);
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+        float position = indicator.getPosition();
+        if (position < 0 || tabs.isEmpty()) {
+            return;
+        }
+        int index = Math.min((int) position, tabs.size() - 1);
+        HiTabTop next = index + 1 < tabs.size() ? tabs.get(index + 1) : null;
+        View rootView = getChildAt(0);
+        indicator.draw(canvas, tabs.get(index), next, position - index, rootView.getLeft(), rootView.getTop());
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        indicator.cancel();
     }
 
     int tabWith;
@@ -123,12 +170,11 @@ public class HiTabTopLayout extends HorizontalScrollView implements IHiTabLayout
     /**
      * 自动滚动，实现点击的位置能够自动滚动以展示前后2个
      *
-     * @param nextInfo 点击tab的info
+     * @param index 点击tab的位置
      */
-    private void autoScroll(HiTabTopInfo nextInfo) {
-        HiTabTop tabTop = findTab(nextInfo);
-        if (tabTop == null) return;
-        int index = infoList.indexOf(nextInfo);
+    private void autoScroll(int index) {
+        if (index < 0) return;
+        HiTabTop tabTop = tabs.get(index);
         int[] loc = new int[2];
         //获取点击的控件在屏幕的位置
         tabTop.getLocationInWindow(loc);
@@ -181,8 +227,7 @@ public class HiTabTopLayout extends HorizontalScrollView implements IHiTabLayout
      * @return 可滚动的距离
      */
     private int scrollWidth(int index, boolean toRight) {
-        HiTabTop target = findTab(infoList.get(index));
-        if (target == null) return 0;
+        HiTabTop target = tabs.get(index);
         Rect rect = new Rect();
         target.getLocalVisibleRect(rect);
         if (toRight) {//点击屏幕右侧
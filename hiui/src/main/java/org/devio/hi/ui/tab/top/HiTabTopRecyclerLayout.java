@@ -0,0 +1,217 @@
+package org.devio.hi.ui.tab.top;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.devio.hi.ui.tab.common.IHiTabLayout;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * 基于RecyclerView的顶部Tab，适用于上百个分类的长列表
+ * 1. 只创建可见范围内的HiTabTop，滑出屏幕的Tab会被复用
+ * 2. 选中状态保存在数据（selectedIndex）中，而不是View中，Tab复用后根据数据重新绑定
+ * 3. 选中后将Tab滚动到中间，与HiTabTopLayout一样能看到前后的Tab
+ */
+public class HiTabTopRecyclerLayout extends RecyclerView implements IHiTabLayout<HiTabTop, HiTabTopInfo<?>> {
+    private static final Object PAYLOAD_SELECTED = new Object();
+
+    private final List<OnTabSelectedListener<HiTabTopInfo<?>>> tabSelectedChangeListeners = new ArrayList<>();
+    private final List<HiTabTopInfo<?>> infoList = new ArrayList<>();
+    private final IdentityHashMap<HiTabTopInfo<?>, Integer> infoIndexMap = new IdentityHashMap<>();
+    private final LinearLayoutManager layoutManager;
+    private int selectedIndex = NO_POSITION;
+    private final HiTabIndicator indicator;
+
+    public HiTabTopRecyclerLayout(@NonNull Context context) {
+        this(context, null);
+    }
+
+    public HiTabTopRecyclerLayout(@NonNull Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public HiTabTopRecyclerLayout(@NonNull Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        setHorizontalScrollBarEnabled(false);
+        layoutManager = new LinearLayoutManager(context, LinearLayoutManager.HORIZONTAL, false);
+        setLayoutManager(layoutManager);
+        //选中变化只更新前后两个Tab，不需要change动画
+        setItemAnimator(null);
+        setAdapter(new TabAdapter());
+        indicator = new HiTabIndicator(this);
+        addItemDecoration(new ItemDecoration() {
+            @Override
+            public void onDrawOver(@NonNull Canvas c, @NonNull RecyclerView parent, @NonNull State state) {
+                drawIndicator(c);
+            }
+        });
+    }
+
+    @Override
+    public void inflateInfo(@NonNull List<HiTabTopInfo<?>> infoList) {
+        if (infoList.isEmpty()) {
+            return;
+        }
+        this.infoList.clear();
+        this.infoList.addAll(infoList);
+        infoIndexMap.clear();
+        for (int i = 0; i < infoList.size(); i++) {
+            infoIndexMap.put(infoList.get(i), i);
+        }
+        selectedIndex = NO_POSITION;
+        indicator.setPosition(-1);
+        getAdapter().notifyDataSetChanged();
+    }
+
+    @Override
+    public void addTabSelectedChangeListener(OnTabSelectedListener<HiTabTopInfo<?>> listener) {
+        tabSelectedChangeListeners.add(listener);
+    }
+
+    /**
+     * Tab只在可见时存在，不可见时返回null
+     */
+    @Nullable
+    @Override
+    public HiTabTop findTab(@NonNull HiTabTopInfo<?> info) {
+        int index = indexOf(info);
+        if (index < 0) {
+            return null;
+        }
+        ViewHolder holder = findViewHolderForAdapterPosition(index);
+        return holder == null ? null : (HiTabTop) holder.itemView;
+    }
+
+    /**
+     * @return 数据在infoList中的位置，不存在时返回-1
+     */
+    public int indexOf(@NonNull HiTabTopInfo<?> info) {
+        Integer index = infoIndexMap.get(info);
+        return index == null ? NO_POSITION : index;
+    }
+
+    @Override
+    public void setDefaultSelectedTab(@NonNull HiTabTopInfo<?> defaultInfo) {
+        onSelected(defaultInfo);
+    }
+
+    private void onSelected(@NonNull HiTabTopInfo<?> nextInfo) {
+        int index = indexOf(nextInfo);
+        if (index < 0) {
+            return;
+        }
+        int prevIndex = selectedIndex;
+        HiTabTopInfo<?> prevInfo = prevIndex == NO_POSITION ? null : infoList.get(prevIndex);
+        selectedIndex = index;
+        if (prevIndex != index) {
+            if (prevIndex != NO_POSITION) {
+                getAdapter().notifyItemChanged(prevIndex, PAYLOAD_SELECTED);
+            }
+            getAdapter().notifyItemChanged(index, PAYLOAD_SELECTED);
+        }
+        for (int i = 0; i < tabSelectedChangeListeners.size(); i++) {
+            tabSelectedChangeListeners.get(i).onTabSelectedChange(index, prevInfo, nextInfo);
+        }
+        indicator.animateTo(index);
+        autoScroll(index);
+    }
+
+    /**
+     * 指示器跟随ViewPager滑动，在ViewPager.OnPageChangeListener的onPageScrolled中调用
+     *
+     * @param position       当前页面的位置
+     * @param positionOffset 向下一页滑动的比例
+     */
+    public void onPageScrolled(int position, float positionOffset) {
+        indicator.setPosition(position + positionOffset);
+    }
+
+    /**
+     * 只有指示器所在的Tab可见时才绘制，下一个Tab不可见时停在当前Tab上
+     */
+    private void drawIndicator(Canvas canvas) {
+        float position = indicator.getPosition();
+        if (position < 0 || infoList.isEmpty()) {
+            return;
+        }
+        int index = Math.min((int) position, infoList.size() - 1);
+        indicator.draw(canvas, layoutManager.findViewByPosition(index), layoutManager.findViewByPosition(index + 1),
+                position - index, 0, 0);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        indicator.cancel();
+    }
+
+    /**
+     * 自动滚动，将选中的Tab滚动到中间
+     *
+     * @param index 选中tab的位置
+     */
+    private void autoScroll(int index) {
+        View tab = layoutManager.findViewByPosition(index);
+        if (tab != null) {
+            int offset = (tab.getLeft() + tab.getRight()) / 2 - getWidth() / 2;
+            smoothScrollBy(offset, 0);
+        } else {
+            //不可见时直接定位，按可见Tab的宽度估算居中的偏移量
+            View first = getChildCount() > 0 ? getChildAt(0) : null;
+            int tabWidth = first == null ? 0 : first.getWidth();
+            layoutManager.scrollToPositionWithOffset(index, (getWidth() - tabWidth) / 2);
+        }
+    }
+
+    private class TabAdapter extends Adapter<ViewHolder> {
+
+        @NonNull
+        @Override
+        public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            HiTabTop tab = new HiTabTop(parent.getContext());
+            tab.setLayoutParams(new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT));
+            final ViewHolder holder = new ViewHolder(tab) {
+            };
+            tab.setOnClickListener(new OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    int position = holder.getAdapterPosition();
+                    if (position != NO_POSITION) {
+                        onSelected(infoList.get(position));
+                    }
+                }
+            });
+            return holder;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+            ((HiTabTop) holder.itemView).bindHiTabInfo(infoList.get(position), position == selectedIndex);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+            if (payloads.contains(PAYLOAD_SELECTED)) {
+                ((HiTabTop) holder.itemView).updateSelected(position == selectedIndex);
+            } else {
+                onBindViewHolder(holder, position);
+            }
+        }
+
+        @Override
+        public int getItemCount() {
+            return infoList.size();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.devio.hi.ui.banner;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.devio.hi.ui.R;
+import org.devio.hi.ui.banner.core.HiBannerAdapter;
+import org.devio.hi.ui.banner.core.HiBannerMo;
+import org.devio.hi.ui.banner.core.IBindAdapter;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 验证HiBannerAdapter在翻页时复用页面：预热之后，继续翻页不会再创建新的ViewHolder和页面View，
+ * 并通过当前线程的分配字节数确认翻页过程中没有按页分配内存
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class HiBannerAdapterTest {
+    //与ViewPager默认的offscreenPageLimit一致，当前页左右各保留一页
+    private static final int OFFSCREEN_LIMIT = 1;
+    private static final int WARM_UP_FLIPS = 5;
+    private static final int FLIPS = 200;
+
+    private HiBannerAdapter adapter;
+    private FrameLayout container;
+    //ViewPager当前持有的页面，下标与position对应
+    private final List<Object> activeItems = new ArrayList<>();
+    private int firstActivePosition;
+    private int bindCount;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        container = new FrameLayout(context);
+        adapter = new HiBannerAdapter(context);
+        adapter.setLayoutResId(R.layout.hi_banner_item_image);
+        adapter.setBindAdapter(new IBindAdapter() {
+            @Override
+            public void onBind(HiBannerAdapter.HiBannerViewHolder viewHolder, HiBannerMo mo, int position) {
+                bindCount++;
+            }
+        });
+        List<BannerMo> models = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            models.add(new BannerMo("https://example.com/" + i + ".png"));
+        }
+        adapter.setBannerData(models);
+    }
+
+    @Test
+    public void flipPages_noNewHoldersAfterWarmUp() {
+        int current = adapter.getFirstItem();
+        firstActivePosition = current - OFFSCREEN_LIMIT;
+        for (int position = current - OFFSCREEN_LIMIT; position <= current + OFFSCREEN_LIMIT; position++) {
+            activeItems.add(adapter.instantiateItem(container, position));
+        }
+        for (int i = 0; i < WARM_UP_FLIPS; i++) {
+            current = flipToNext(current);
+        }
+
+        Set<Object> warmHolders = identitySet();
+        Set<View> warmViews = identitySet();
+        collect(warmHolders, warmViews);
+        int bindsBefore = bindCount;
+
+        for (int i = 0; i < FLIPS; i++) {
+            current = flipToNext(current);
+            Object newItem = activeItems.get(activeItems.size() - 1);
+            assertTrue("flip " + i + " allocated a new holder", warmHolders.contains(newItem));
+            assertTrue("flip " + i + " inflated a new page",
+                    warmViews.contains(((HiBannerAdapter.HiBannerViewHolder) newItem).getRootView()));
+        }
+
+        Set<Object> holders = identitySet();
+        Set<View> views = identitySet();
+        collect(holders, views);
+        assertEquals(warmHolders, holders);
+        assertEquals(warmViews, views);
+        //每次翻页只绑定新进入范围的一页
+        assertEquals(FLIPS, bindCount - bindsBefore);
+        assertEquals(OFFSCREEN_LIMIT * 2 + 1, container.getChildCount());
+    }
+
+    /**
+     * 预热之后测量翻页期间当前线程分配的字节数
+     * Adapter自身在翻页时不分配内存，但Robolectric对ViewGroup.addView等方法的影子实现每次调用会分配少量的临时对象，
+     * 因此不能断言为0；这里以创建一个页面（inflate布局并创建ViewHolder）的分配量为上限：
+     * FLIPS次翻页的总分配量小于创建一个页面的分配量，说明没有任何一次翻页重新创建页面，且每次翻页的分配量可以忽略
+     */
+    @Test
+    public void flipPages_allocateLessThanOnePageAfterWarmUp() {
+        com.sun.management.ThreadMXBean threadBean = threadMXBean();
+        int current = adapter.getFirstItem();
+        firstActivePosition = current - OFFSCREEN_LIMIT;
+        for (int position = current - OFFSCREEN_LIMIT; position <= current + OFFSCREEN_LIMIT; position++) {
+            activeItems.add(adapter.instantiateItem(container, position));
+        }
+        for (int i = 0; i < WARM_UP_FLIPS; i++) {
+            current = flipToNext(current);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < FLIPS; i++) {
+            current = flipToNext(current);
+        }
+        long flipBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        long pageBytes = measureNewPageBytes(threadBean);
+        assertTrue(FLIPS + " flips allocated " + flipBytes + " bytes, creating one page allocates " + pageBytes,
+                flipBytes < pageBytes);
+    }
+
+    @Test
+    public void flipPages_reusesHolderDestroyedInSameFlip() {
+        int current = adapter.getFirstItem();
+        firstActivePosition = current - OFFSCREEN_LIMIT;
+        for (int position = current - OFFSCREEN_LIMIT; position <= current + OFFSCREEN_LIMIT; position++) {
+            activeItems.add(adapter.instantiateItem(container, position));
+        }
+        Object destroyed = activeItems.get(0);
+        flipToNext(current);
+        assertSame(destroyed, activeItems.get(activeItems.size() - 1));
+    }
+
+    /**
+     * 按ViewPager的顺序翻到下一页：先销毁离开范围的页面，再实例化进入范围的页面
+     */
+    private int flipToNext(int current) {
+        Object leaving = activeItems.remove(0);
+        adapter.destroyItem(container, firstActivePosition, leaving);
+        firstActivePosition++;
+        int entering = current + 1 + OFFSCREEN_LIMIT;
+        activeItems.add(adapter.instantiateItem(container, entering));
+        adapter.finishUpdate(container);
+        return current + 1;
+    }
+
+    /**
+     * 测量在回收池为空的Adapter上创建一个页面的分配量，先创建一次排除类加载等一次性开销
+     */
+    private long measureNewPageBytes(com.sun.management.ThreadMXBean threadBean) {
+        Context context = ApplicationProvider.getApplicationContext();
+        HiBannerAdapter coldAdapter = new HiBannerAdapter(context);
+        coldAdapter.setLayoutResId(R.layout.hi_banner_item_image);
+        List<BannerMo> models = new ArrayList<>();
+        models.add(new BannerMo("https://example.com/cold.png"));
+        coldAdapter.setBannerData(models);
+        FrameLayout coldContainer = new FrameLayout(context);
+        coldAdapter.instantiateItem(coldContainer, 0);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        coldAdapter.instantiateItem(coldContainer, 1);
+        return threadBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue("thread allocation measurement is not supported by this JVM",
+                bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        return threadBean;
+    }
+
+    private void collect(Set<Object> holders, Set<View> views) {
+        for (Object item : activeItems) {
+            holders.add(item);
+            views.add(((HiBannerAdapter.HiBannerViewHolder) item).getRootView());
+        }
+    }
+
+    private static <T> Set<T> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+    }
+
+    private static class BannerMo extends HiBannerMo {
+        BannerMo(String url) {
+            this.url = url;
+        }
+    }
+}